@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.fragment.app.Fragment;
+
+import org.scionlab.scion.as.TimeSeriesStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.scionlab.scion.as.Config.ResourceSampler.*;
+
+/**
+ * Plots the sampled resource usage, echo RTT and loss, and router throughput as sparklines.
+ * The view is only updated when the time-series store reports new samples (i.e., after every
+ * scrape) and while the fragment is visible.
+ */
+public class DashboardFragment extends Fragment {
+    // metric name, title, format and scale of the plotted series (in this order)
+    private static final Object[][] METRICS = {
+            {CPU_METRIC, "CPU", "%.1f %%", 1.0},
+            {MAX_PROCS_METRIC, "GOMAXPROCS", "%.0f", 1.0},
+            {RSS_METRIC, "RSS", "%.1f MiB", 1.0 / 1024 / 1024},
+            {MEMORY_LIMIT_METRIC, "GOMEMLIMIT", "%.1f MiB", 1.0 / 1024 / 1024},
+            {RTT_METRIC, "RTT", "%.1f ms", 1.0},
+            {LOSS_METRIC, "Loss", "%.1f %%", 100.0},
+            {THROUGHPUT_METRIC, "Throughput", "%.1f KiB/s", 1.0 / 1024}
+    };
+
+    private SparklineView sparklineView;
+    private TextView emptyTextView;
+    private TimeSeriesStore timeSeriesStore;
+    private int seriesCount = -1;
+    private final Runnable refresh = this::refresh;
+    private final Runnable listener = () -> {
+        SparklineView sparklineView = this.sparklineView;
+        if (sparklineView != null)
+            sparklineView.post(refresh);
+    };
+
+    @Override
+    public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
+        View layout = inflater.inflate(R.layout.fragment_dashboard, container, false);
+        sparklineView = layout.findViewById(R.id.sparklineView);
+        emptyTextView = layout.findViewById(R.id.dashboardEmpty);
+        return layout;
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        timeSeriesStore = ScionService.getTimeSeriesStore();
+        if (timeSeriesStore != null)
+            timeSeriesStore.addListener(listener);
+        seriesCount = -1;
+        refresh();
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        if (timeSeriesStore != null)
+            timeSeriesStore.removeListener(listener);
+        timeSeriesStore = null;
+    }
+
+    private static int indexOfMetric(String key) {
+        for (int i = 0; i < METRICS.length; i++)
+            if (key.startsWith(METRICS[i][0] + "{"))
+                return i;
+        return -1;
+    }
+
+    // returns the value of the (only) label of a key such as cpu_percent{component="Daemon"}
+    private static String getLabelValue(String key) {
+        int start = key.indexOf('"'), end = key.lastIndexOf('"');
+        return start >= 0 && end > start ? key.substring(start + 1, end) : key;
+    }
+
+    // Rebuilds the rows, which is only necessary when new series have appeared.
+    private void updateRows() {
+        List<TimeSeriesStore.Series> series = new ArrayList<>();
+        timeSeriesStore.forEach(_series -> {
+            if (_series.getGroup().equals(GROUP) && indexOfMetric(_series.getKey()) >= 0)
+                series.add(_series);
+        });
+        series.sort(Comparator.comparingInt((TimeSeriesStore.Series _series) -> indexOfMetric(_series.getKey()))
+                .thenComparing(TimeSeriesStore.Series::getKey));
+
+        List<SparklineView.Row> rows = new ArrayList<>();
+        for (TimeSeriesStore.Series _series : series) {
+            Object[] metric = METRICS[indexOfMetric(_series.getKey())];
+            rows.add(new SparklineView.Row(getLabelValue(_series.getKey()) + " " + metric[1],
+                    _series.getRing(TimeSeriesStore.Resolution.RAW), (String) metric[2], (Double) metric[3]));
+        }
+        sparklineView.setRows(rows);
+    }
+
+    private void refresh() {
+        if (sparklineView == null)
+            return;
+        if (timeSeriesStore == null) {
+            sparklineView.setRows(Collections.emptyList());
+        } else if (timeSeriesStore.size() != seriesCount) {
+            seriesCount = timeSeriesStore.size();
+            updateRows();
+        } else
+            sparklineView.update();
+        emptyTextView.setVisibility(sparklineView.hasRows() ? View.GONE : View.VISIBLE);
+    }
+}
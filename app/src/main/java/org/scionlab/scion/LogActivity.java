@@ -1,53 +1,173 @@
 package org.scionlab.scion;
 
+import android.content.Context;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.SpannableString;
+import android.text.Spanned;
+import android.text.TextWatcher;
+import android.text.style.BackgroundColorSpan;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.webkit.WebView;
 import android.widget.AdapterView;
+import android.widget.EditText;
 import android.widget.LinearLayout;
-import android.widget.ScrollView;
 import android.widget.Spinner;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.appcompat.app.AppCompatActivity;
+import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.android.material.chip.Chip;
+import com.google.android.material.chip.ChipGroup;
 
 import org.scionlab.scion.as.Config;
+import org.scionlab.scion.as.LogStore;
 import org.scionlab.scion.as.Logger;
 
-import androidx.fragment.app.Fragment;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import timber.log.Timber;
 
+import static org.scionlab.scion.as.Config.Logger.*;
+
+/**
+ * Shows the log lines from the log store in a RecyclerView, so only visible lines are bound.
+ * The view holds the indices of the lines that match the current filter: new lines are added
+ * at the end, older lines are searched in the background when scrolling near the top.
+ */
 public class LogActivity extends Fragment {
+    private static LogStore logStore;
     private static Logger.Tree tree;
-    private static StringBuffer buffer = new StringBuffer();
     private static Logger.LogLevel logLevel = Config.Logger.DEFAULT_LOG_LEVEL;
-    private TextView logTextView;
-    private ScrollView scrollView;
 
-    private MainActivity activity;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean isUpdatePending = new AtomicBoolean();
+    private final LogStore.Matches matches = new LogStore.Matches(VIEW_PAGE_LINES); // only used by the executor
+    private final Indices indices = new Indices();
+    private final Runnable update = () -> appendNewLines(VIEW_MAX_LINES);
+    private final Runnable listener = () -> {
+        if (isUpdatePending.compareAndSet(false, true))
+            handler.post(update);
+    };
+    private LogStore.Filter filter = LogStore.Filter.ALL;
+    private int searchedFrom; // all matching lines in [searchedFrom, lastSeen) are in indices
+    private int lastSeen;
+    private int generation; // incremented when the filter changes, so stale searches are discarded
+    private boolean isLoading;
+    private String query = "";
+    private int highlightColor;
+
+    private RecyclerView recyclerView;
+    private LinearLayoutManager layoutManager;
+    private LogAdapter adapter;
+    private ChipGroup tagChipGroup;
+    private int tagChipCount;
+
+    // Growable int array that supports adding at both ends and dropping from the front.
+    private static class Indices {
+        private int[] values = new int[1024];
+        private int start, end;
+
+        int size() {
+            return end - start;
+        }
+
+        int get(int i) {
+            return values[start + i];
+        }
+
+        void clear() {
+            start = end = 0;
+        }
+
+        private void ensureCapacity(int front, int back) {
+            if (start >= front && values.length - end >= back)
+                return;
+            int[] newValues = new int[Math.max(values.length, (size() + front + back) * 2)];
+            int newStart = front + (newValues.length - size() - front - back) / 2;
+            System.arraycopy(values, start, newValues, newStart, size());
+            end = newStart + size();
+            start = newStart;
+            values = newValues;
+        }
+
+        void addLast(int value) {
+            ensureCapacity(0, 1);
+            values[end++] = value;
+        }
+
+        void addFirst(int[] values, int count) {
+            ensureCapacity(count, 0);
+            start -= count;
+            System.arraycopy(values, 0, this.values, start, count);
+        }
+
+        void removeFirst(int count) {
+            start += count;
+        }
+    }
+
+    private static class LineViewHolder extends RecyclerView.ViewHolder {
+        private final TextView textView;
+
+        LineViewHolder(TextView textView) {
+            super(textView);
+            this.textView = textView;
+        }
+    }
+
+    private class LogAdapter extends RecyclerView.Adapter<LineViewHolder> {
+        @NonNull
+        @Override
+        public LineViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return new LineViewHolder((TextView) LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.log_line, parent, false));
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull LineViewHolder holder, int position) {
+            LogStore.Line line = logStore.get(indices.get(position));
+            holder.textView.setText(line == null ? "" : highlight(formatMessage(line.getTag(), line.getMessage())));
+        }
+
+        @Override
+        public int getItemCount() {
+            return indices.size();
+        }
+    }
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
-        LinearLayout layout = (LinearLayout)inflater.inflate(R.layout.activity_log, container, false);
+        LinearLayout layout = (LinearLayout) inflater.inflate(R.layout.activity_log, container, false);
         Spinner logLevelSpinner = layout.findViewById(R.id.logLevelSpinner);
-        scrollView = layout.findViewById(R.id.scrollView);
-        logTextView = layout.findViewById(R.id.logTextView);
-
-        activity = (MainActivity)getActivity();
+        EditText searchEditText = layout.findViewById(R.id.logSearchEditText);
+        ChipGroup levelChipGroup = layout.findViewById(R.id.logLevelChips);
+        tagChipGroup = layout.findViewById(R.id.logTagChips);
+        recyclerView = layout.findViewById(R.id.logRecyclerView);
+        highlightColor = requireContext().getColor(R.color.colorAccent);
 
-        Logger.Tree newTree = new Logger.Tree((tag, message) -> activity.runOnUiThread(() -> {
-            logTextView.append(formatMessage(tag, message));
-            scrollDown();
-        }));
         logLevelSpinner.setSelection(logLevel.getValue());
         logLevelSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
                 logLevel = Logger.LogLevel.valueOf((String) parent.getItemAtPosition(position));
-                tree.setLogLevel(logLevel);
+                if (tree != null)
+                    tree.setLogLevel(logLevel);
+                ScionService.setProcessLogLevel(logLevel);
             }
 
             @Override
@@ -55,38 +175,220 @@ public class LogActivity extends Fragment {
             }
         });
 
-        logTextView.append(buffer);
-        scrollDown();
-        buffer = new StringBuffer();
-        plantTree(newTree);
+        for (Logger.LogLevel level : Logger.LogLevel.values())
+            levelChipGroup.addView(createChip(level.name(), isChecked -> setFilter(filter.withLevel(level, isChecked))));
+
+        searchEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                query = s.toString().toLowerCase(Locale.ROOT);
+                // only the bound (i.e., visible) lines are highlighted again
+                adapter.notifyItemRangeChanged(0, adapter.getItemCount());
+            }
+        });
+
+        layoutManager = new LinearLayoutManager(getContext());
+        layoutManager.setStackFromEnd(true);
+        adapter = new LogAdapter();
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                loadOlderLinesIfNeeded();
+            }
+        });
+
+        plantTree(requireContext());
+        tagChipCount = 0;
+        setFilter(LogStore.Filter.ALL);
         return layout;
     }
 
+    // SCION processes only produce verbose output while the log is viewed.
+    @Override
+    public void onStart() {
+        super.onStart();
+        ScionService.setProcessLogLevel(logLevel);
+        if (logStore != null)
+            logStore.addListener(listener);
+        // lines appended in the background are mostly read from disk, so only few are checked here
+        appendNewLines(VIEW_PAGE_LINES);
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        ScionService.setProcessLogLevel(BACKGROUND_LOG_LEVEL);
+        if (logStore != null)
+            logStore.removeListener(listener);
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        recyclerView = null;
+    }
+
     @Override
     public void onDestroy() {
-        buffer = new StringBuffer(logTextView.getText());
-        plantTree(new Logger.Tree((tag, message) -> activity.runOnUiThread(() ->
-                LogActivity.append(tag, message))));
+        executor.shutdownNow();
         super.onDestroy();
     }
 
-    static void plantTree(Logger.Tree tree) {
-        LogActivity.tree = tree;
-        Timber.uprootAll();
-        Timber.plant(tree);
+    private static synchronized LogStore getLogStore(Context context) {
+        if (logStore == null) {
+            try {
+                logStore = new LogStore(new File(context.getCacheDir(), LOG_STORE_FILE));
+            } catch (IOException e) {
+                // there is no log to write this to yet
+                e.printStackTrace();
+            }
+        }
+        return logStore;
     }
 
-    static void append(String tag, String message) {
-        buffer.append(formatMessage(tag, message));
+    // Plants the tree that writes all log lines to Logcat and the log store (once per process).
+    // Messages of the AS (see Logger) and of the app (see Timber) pass through the same tree.
+    static synchronized void plantTree(Context context) {
+        if (tree != null)
+            return;
+        LogStore logStore = getLogStore(context.getApplicationContext());
+        Logger.Tree tree = new Logger.Tree((tag, level, message) -> {
+            if (logStore != null)
+                logStore.append(tag, level, message);
+        }, (priority, tag, message, t) -> Log.println(priority, tag, message));
+        tree.setLogLevel(logLevel);
+        LogActivity.tree = tree;
+        Logger.setSink(tree);
+        Timber.uprootAll();
+        Timber.plant(new Timber.DebugTree() {
+            @Override
+            protected void log(int priority, String tag, @NonNull String message, Throwable t) {
+                tree.log(priority, tag, message, t);
+            }
+        });
     }
 
     @NonNull
     private static String formatMessage(String tag, String message) {
-        return String.format("%s: %s\n", tag, message);
+        return String.format("%s: %s", tag, message);
+    }
+
+    private interface OnCheckedChangeListener {
+        void onCheckedChanged(boolean isChecked);
+    }
+
+    private Chip createChip(String text, OnCheckedChangeListener listener) {
+        Chip chip = new Chip(requireContext());
+        chip.setText(text);
+        chip.setCheckable(true);
+        chip.setChecked(true);
+        chip.setOnCheckedChangeListener((button, isChecked) -> listener.onCheckedChanged(isChecked));
+        return chip;
+    }
+
+    private void addTagChips() {
+        List<String> tags = logStore.getTags();
+        for (; tagChipCount < tags.size(); tagChipCount++) {
+            int tagIndex = tagChipCount;
+            tagChipGroup.addView(createChip(tags.get(tagIndex), isChecked -> setFilter(filter.withTag(tagIndex, isChecked))));
+        }
+    }
+
+    private CharSequence highlight(String text) {
+        if (query.isEmpty())
+            return text;
+        String lowerCaseText = text.toLowerCase(Locale.ROOT);
+        int index = lowerCaseText.indexOf(query);
+        if (index < 0)
+            return text;
+        SpannableString spannable = new SpannableString(text);
+        for (; index >= 0; index = lowerCaseText.indexOf(query, index + query.length()))
+            spannable.setSpan(new BackgroundColorSpan(highlightColor), index, index + query.length(),
+                    Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        return spannable;
+    }
+
+    // Shows the newest lines matching the new filter, older ones are loaded on demand.
+    private void setFilter(LogStore.Filter filter) {
+        this.filter = filter;
+        generation++;
+        isLoading = false;
+        indices.clear();
+        searchedFrom = lastSeen = logStore == null ? 0 : logStore.size();
+        adapter.notifyDataSetChanged();
+        loadOlderLinesIfNeeded();
+    }
+
+    // Adds the lines appended since the last update, at most once per frame. If more than the given
+    // number of lines were appended, the view starts over at the newest lines instead of checking
+    // each new line on the main thread, older ones are then searched in the background.
+    private void appendNewLines(int maxLines) {
+        isUpdatePending.set(false);
+        if (logStore == null || recyclerView == null)
+            return;
+        addTagChips();
+        int size = logStore.size(), count = indices.size();
+        if (size - lastSeen > maxLines) {
+            setFilter(filter);
+            return;
+        }
+        boolean isAtBottom = count == 0 || layoutManager.findLastVisibleItemPosition() >= count - 1;
+        for (; lastSeen < size; lastSeen++) {
+            LogStore.Line line = logStore.get(lastSeen);
+            if (line != null && filter.matches(line))
+                indices.addLast(lastSeen);
+        }
+        if (indices.size() > count)
+            adapter.notifyItemRangeInserted(count, indices.size() - count);
+
+        // older lines are dropped from the view only, they can be loaded again from the store
+        if (isAtBottom && indices.size() > VIEW_MAX_LINES) {
+            int dropped = indices.size() - VIEW_MAX_LINES;
+            indices.removeFirst(dropped);
+            searchedFrom = indices.get(0);
+            adapter.notifyItemRangeRemoved(0, dropped);
+        }
+        if (isAtBottom && indices.size() > 0)
+            recyclerView.scrollToPosition(indices.size() - 1);
+        loadOlderLinesIfNeeded();
+    }
+
+    // Searches the store for older matching lines when scrolled close to the top.
+    private void loadOlderLinesIfNeeded() {
+        if (isLoading || logStore == null || searchedFrom <= logStore.getFirstIndex() ||
+                (indices.size() > 0 && layoutManager.findFirstVisibleItemPosition() > VIEW_PREFETCH_LINES))
+            return;
+        isLoading = true;
+        int generation = this.generation, before = searchedFrom;
+        LogStore.Filter filter = this.filter;
+        executor.execute(() -> {
+            logStore.findBefore(before, filter, matches);
+            int count = matches.getCount(), from = matches.getFrom();
+            int[] olderIndices = new int[count];
+            for (int i = 0; i < count; i++)
+                olderIndices[count - 1 - i] = matches.get(i);
+            handler.post(() -> addOlderLines(generation, olderIndices, from));
+        });
     }
 
-    private void scrollDown() {
-        // dont always scroll down or you cannot read older messages!!
-        //scrollView.post(() -> scrollView.fullScroll(View.FOCUS_DOWN));
+    private void addOlderLines(int generation, int[] olderIndices, int from) {
+        if (generation != this.generation || recyclerView == null)
+            return;
+        isLoading = false;
+        indices.addFirst(olderIndices, olderIndices.length);
+        searchedFrom = from;
+        if (olderIndices.length > 0)
+            adapter.notifyItemRangeInserted(0, olderIndices.length);
+        loadOlderLinesIfNeeded();
     }
 }
@@ -62,6 +62,7 @@ public class MainActivity extends AppCompatActivity {
     private String pingAddress;
 
     private ScionControlFragment controlFragment;
+    private DashboardFragment dashboardFragment;
     private SensorFetcherFragment sensorFetcherFragment;
     private LogActivity logFragment;
     private WebActivity howtoFragment;
@@ -96,7 +97,7 @@ public class MainActivity extends AppCompatActivity {
         drawer.addDrawerListener(abdt);
 
         getSupportActionBar().setHomeButtonEnabled(true);
-//        getSupportActionBar().setSubtitle("Version: " + ScionLabAS.getScionVersion(this));
+//        getSupportActionBar().setSubtitle("Version: " + ScionLabAS.getScionVersion(new AndroidPlatform(this)));
         getSupportActionBar().setSubtitle("Version: " + SCION_VERSION);
         abdt.syncState();
 
@@ -129,6 +130,11 @@ public class MainActivity extends AppCompatActivity {
                 controlFragment = new ScionControlFragment();
             }
             fragment = controlFragment;
+        } else if (id == R.id.nav_dashboard) {
+            if (dashboardFragment == null) {
+                dashboardFragment = new DashboardFragment();
+            }
+            fragment = dashboardFragment;
         } else if (id == R.id.nav_sensor_fetcher){
             if (sensorFetcherFragment == null) {
                 sensorFetcherFragment = new SensorFetcherFragment();
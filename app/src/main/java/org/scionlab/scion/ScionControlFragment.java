@@ -9,18 +9,24 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AdapterView;
 import android.widget.EditText;
 import android.widget.ScrollView;
+import android.widget.Spinner;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.textfield.TextInputLayout;
 
-import org.scionlab.scion.as.Logger;
+import org.scionlab.scion.as.Config;
+import org.scionlab.scion.as.PowerProfile;
+import org.scionlab.scion.as.RuntimeProfile;
 import org.scionlab.scion.as.ScionAS;
 
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
@@ -29,6 +35,9 @@ import androidx.fragment.app.FragmentActivity;
 public class ScionControlFragment extends Fragment {
     private static final String SCIONLAB_CONFIGURATION_URI = MainActivity.class.getCanonicalName() + ".SCIONLAB_CONFIGURATION_URI";
     private static final String PING_ADDRESS = MainActivity.class.getCanonicalName() + ".PING_ADDRESS";
+    private static final String RUNTIME_PROFILE = MainActivity.class.getCanonicalName() + ".RUNTIME_PROFILE";
+    private static final String POWER_PROFILE = MainActivity.class.getCanonicalName() + ".POWER_PROFILE";
+    private static final String AUTOMATIC_POWER_PROFILE = "AUTOMATIC"; // chooses the power profile by battery state
     private static final String UPDATE_USER_INTERFACE = MainActivity.class.getCanonicalName() + ".UPDATE_USER_INTERFACE";
     private static final String SCION_STATE = MainActivity.class.getCanonicalName() + ".SCION_STATE";
     private static final String COMPONENT_STATE = MainActivity.class.getCanonicalName() + ".COMPONENT_STATE";
@@ -37,6 +46,7 @@ public class ScionControlFragment extends Fragment {
     private BroadcastReceiver updateUserInterfaceReceiver;
     private MaterialButton scionButton;
     private EditText pingAddressEditText;
+    private TextView pingStatisticsTextView;
     private String scionLabConfigurationUri;
     private String pingAddress;
     private Chip[] chips;
@@ -55,6 +65,7 @@ public class ScionControlFragment extends Fragment {
         preferences = activity.getPreferences(activity.MODE_PRIVATE);
         scionButton = layout.findViewById(R.id.scionbutton);
         pingAddressEditText = layout.findViewById(R.id.pingAddressEditText);
+        pingStatisticsTextView = layout.findViewById(R.id.pingStatistics);
         TextInputLayout pingAddressTextInputLayout = layout.findViewById(R.id.pingAddressTextInputLayout);
         scionLabConfigurationUri = preferences.getString(SCIONLAB_CONFIGURATION_URI, null);
         pingAddress = preferences.getString(PING_ADDRESS, getResources().getString(R.string.pingAddress));
@@ -64,9 +75,44 @@ public class ScionControlFragment extends Fragment {
             preferences.edit().putString(PING_ADDRESS, pingAddress).apply();
             ScionService.setPingAddress(pingAddress);
         });
-        LogActivity.plantTree(new Logger.Tree((tag, message) -> activity.runOnUiThread(() ->
-                LogActivity.append(tag, message))));
+        LogActivity.plantTree(activity);
+
+        Spinner runtimeProfileSpinner = layout.findViewById(R.id.runtimeProfileSpinner);
+        RuntimeProfile runtimeProfile = RuntimeProfile.valueOf(
+                preferences.getString(RUNTIME_PROFILE, Config.GoRuntime.DEFAULT_PROFILE.name()));
+        ScionService.setRuntimeProfile(runtimeProfile);
+        runtimeProfileSpinner.setSelection(runtimeProfile.ordinal());
+        runtimeProfileSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                RuntimeProfile runtimeProfile = RuntimeProfile.valueOf((String) parent.getItemAtPosition(position));
+                preferences.edit().putString(RUNTIME_PROFILE, runtimeProfile.name()).apply();
+                ScionService.setRuntimeProfile(runtimeProfile);
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
 
+        Spinner powerProfileSpinner = layout.findViewById(R.id.powerProfileSpinner);
+        String powerProfile = preferences.getString(POWER_PROFILE, AUTOMATIC_POWER_PROFILE);
+        ScionService.setPowerProfile(getPowerProfile(powerProfile));
+        for (int i = 0; i < powerProfileSpinner.getCount(); i++)
+            if (powerProfileSpinner.getItemAtPosition(i).equals(powerProfile))
+                powerProfileSpinner.setSelection(i);
+        powerProfileSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                String powerProfile = (String) parent.getItemAtPosition(position);
+                preferences.edit().putString(POWER_PROFILE, powerProfile).apply();
+                ScionService.setPowerProfile(getPowerProfile(powerProfile));
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
 
         chips = new Chip[] {
                 layout.findViewById(R.id.controlServer),
@@ -140,6 +186,24 @@ public class ScionControlFragment extends Fragment {
             if (k.equals("VPNClient"))
                 chips[CHIP_VPN_CLIENT_INDEX].setChipIconTintResource(color);
         });
+
+        String pingStatistics = ScionService.getPingStatistics().entrySet().stream()
+                .filter(e -> e.getValue().getCount() > 0)
+                .map(e -> getString(R.string.pingStatistics, e.getKey(),
+                        e.getValue().getP50(), e.getValue().getP90(), e.getValue().getP99(),
+                        e.getValue().getMax(), e.getValue().getJitter(), e.getValue().getLossRate() * 100))
+                .collect(Collectors.joining("\n\n"));
+        if (state == ScionAS.State.STOPPED || pingStatistics.isEmpty())
+            pingStatisticsTextView.setVisibility(View.GONE);
+        else {
+            pingStatisticsTextView.setText(pingStatistics);
+            pingStatisticsTextView.setVisibility(View.VISIBLE);
+        }
+    }
+
+    // Returns null for the automatic power profile.
+    private static PowerProfile getPowerProfile(String powerProfile) {
+        return powerProfile.equals(AUTOMATIC_POWER_PROFILE) ? null : PowerProfile.valueOf(powerProfile);
     }
 
     private void chooseScionLabConfiguration(Activity activity) {
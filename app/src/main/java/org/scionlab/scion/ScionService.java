@@ -24,14 +24,24 @@ import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.app.Service;
+import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.LinkAddress;
+import android.net.LinkProperties;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
 import android.net.Uri;
+import android.os.BatteryManager;
 import android.os.Build;
 import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.IBinder;
 import android.os.Looper;
+import android.os.PowerManager;
 import android.widget.Toast;
 
 import androidx.core.app.NotificationCompat;
@@ -39,6 +49,13 @@ import androidx.work.Data;
 import androidx.work.OneTimeWorkRequest;
 import androidx.work.WorkManager;
 
+import org.scionlab.scion.as.AndroidPlatform;
+import org.scionlab.scion.as.Config;
+import org.scionlab.scion.as.Logger;
+import org.scionlab.scion.as.PowerProfile;
+import org.scionlab.scion.as.RttRecorder;
+import org.scionlab.scion.as.RuntimeProfile;
+import org.scionlab.scion.as.TimeSeriesStore;
 import org.scionlab.scion.as.ScionAS;
 import org.scionlab.scion.as.ScionLabAS;
 
@@ -46,7 +63,12 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import timber.log.Timber;
 
@@ -57,11 +79,82 @@ public class ScionService extends Service {
     static final String PING_ADDRESS = ScionService.class.getCanonicalName() + ".PING_ADDRESS";
     private NotificationManager notificationManager;
     private NotificationCompat.Builder notificationBuilder;
-    private Handler handler;
+    private static Handler handler;
     @SuppressLint("StaticFieldLeak")
     static ScionLabAS scionLabAS;
     private static ScionAS.State state = ScionAS.State.STOPPED;
     private static Map<String, ScionAS.State> componentState = new HashMap<>();
+    private static Logger.LogLevel processLogLevel = Config.Logger.BACKGROUND_LOG_LEVEL;
+    private static RuntimeProfile runtimeProfile = Config.GoRuntime.DEFAULT_PROFILE;
+    private static PowerProfile powerProfile; // null: choose by battery state
+    private static PowerProfile batteryPowerProfile = Config.Power.DEFAULT_PROFILE;
+    // Restarts block until the restarted components are ready again (see ComponentRegistry.restart),
+    // so they run one after another on their own thread, the handler only debounces them.
+    private static final ExecutorService restartExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ScionService restarts");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Runnable handover = () -> restartExecutor.execute(() -> scionLabAS.handleNetworkChange());
+    private static final Runnable powerProfileSwitch = () ->
+            restartExecutor.execute(() -> scionLabAS.setPowerProfile(getPowerProfile()));
+
+    // Chooses the power profile by battery level, charging and power save mode. Switching is
+    // delayed so a flaky charger does not restart the control plane over and over. The battery
+    // intent is also sent for voltage and temperature changes, these must not put off the switch.
+    private final BroadcastReceiver batteryReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            if (updateBatteryPowerProfile(intent))
+                schedulePowerProfileSwitch(Config.Power.SWITCH_DELAY);
+        }
+    };
+
+    // Tracks the underlying (non-VPN) network. When it is replaced by another one (e.g., when
+    // switching from Wi-Fi to cellular) or its addresses change, the components bound to the
+    // underlay are restarted once the network has settled. A network that comes back after all
+    // were lost is left to the VPN client, which resumes its paused tunnel (see OpenVPNClient).
+    // All callbacks run on the service's handler thread.
+    private final ConnectivityManager.NetworkCallback networkCallback = new ConnectivityManager.NetworkCallback() {
+        private final Set<Network> networks = new LinkedHashSet<>();
+        private Network network;
+        private List<LinkAddress> linkAddresses;
+
+        private void scheduleHandover() {
+            handler.removeCallbacks(handover);
+            handler.postDelayed(handover, Config.Scion.HANDOVER_DELAY);
+        }
+
+        @Override
+        public void onAvailable(Network network) {
+            networks.add(network);
+            if (this.network == null) {
+                this.network = network;
+                linkAddresses = null;
+            }
+        }
+
+        @Override
+        public void onLost(Network network) {
+            networks.remove(network);
+            if (network.equals(this.network)) {
+                this.network = networks.isEmpty() ? null : networks.iterator().next();
+                linkAddresses = null;
+                if (this.network != null)
+                    scheduleHandover();
+            }
+        }
+
+        @Override
+        public void onLinkPropertiesChanged(Network network, LinkProperties linkProperties) {
+            if (!network.equals(this.network))
+                return;
+            List<LinkAddress> linkAddresses = linkProperties.getLinkAddresses();
+            if (this.linkAddresses != null && !this.linkAddresses.equals(linkAddresses))
+                scheduleHandover();
+            this.linkAddresses = linkAddresses;
+        }
+    };
 
     static void start(Context context, String scionLabConfigurationUri, String pingAddress) {
         context.startService(new Intent(context, ScionService.class)
@@ -81,11 +174,72 @@ public class ScionService extends Service {
         return componentState;
     }
 
+    static Map<String, RttRecorder.Statistics> getPingStatistics() {
+        return scionLabAS == null ? new HashMap<>() : scionLabAS.getPingStatistics();
+    }
+
+    static TimeSeriesStore getTimeSeriesStore() {
+        return scionLabAS == null ? null : scionLabAS.getTimeSeriesStore();
+    }
+
     static void setPingAddress(String pingAddress) {
         if (scionLabAS != null)
             scionLabAS.setPingAddress(pingAddress);
     }
 
+    // Sets the log level of the SCION processes, also for processes that are started later.
+    static void setProcessLogLevel(Logger.LogLevel logLevel) {
+        processLogLevel = logLevel;
+        if (scionLabAS != null)
+            scionLabAS.setProcessLogLevel(logLevel);
+    }
+
+    // Sets the Go runtime profile of SCION processes that are started afterwards.
+    static void setRuntimeProfile(RuntimeProfile runtimeProfile) {
+        ScionService.runtimeProfile = runtimeProfile;
+        if (scionLabAS != null)
+            scionLabAS.setRuntimeProfile(runtimeProfile);
+    }
+
+    // Sets the power profile, null chooses it by battery state. Components whose configuration
+    // changes are restarted on the service's restart thread.
+    static void setPowerProfile(PowerProfile powerProfile) {
+        ScionService.powerProfile = powerProfile;
+        schedulePowerProfileSwitch(0);
+    }
+
+    private static PowerProfile getPowerProfile() {
+        PowerProfile powerProfile = ScionService.powerProfile;
+        return powerProfile != null ? powerProfile : batteryPowerProfile;
+    }
+
+    private static void schedulePowerProfileSwitch(long delay) {
+        Handler handler = ScionService.handler;
+        if (handler != null && scionLabAS != null) {
+            handler.removeCallbacks(powerProfileSwitch);
+            handler.postDelayed(powerProfileSwitch, delay);
+        }
+    }
+
+    // The battery intent may be a sticky ACTION_BATTERY_CHANGED or any other intent of the receiver's filter.
+    // Returns whether the power profile chosen by battery state has changed.
+    private boolean updateBatteryPowerProfile(Intent intent) {
+        Intent battery = Intent.ACTION_BATTERY_CHANGED.equals(intent.getAction())
+                ? intent : registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (battery == null)
+            return false;
+        int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+        int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+        if (level < 0 || scale <= 0)
+            return false;
+        PowerProfile previousPowerProfile = batteryPowerProfile;
+        batteryPowerProfile = PowerProfile.forBattery(
+                battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0,
+                level * 100 / scale,
+                getSystemService(PowerManager.class).isPowerSaveMode());
+        return batteryPowerProfile != previousPowerProfile;
+    }
+
     @Override
     public void onCreate() {
         super.onCreate();
@@ -95,12 +249,23 @@ public class ScionService extends Service {
         handlerThread.start();
         Looper looper = handlerThread.getLooper();
         handler = new Handler(looper);
-        scionLabAS = new ScionLabAS(this, (state, componentState) -> {
+        scionLabAS = new ScionLabAS(new AndroidPlatform(this), (state, componentState) -> {
             ScionService.state = state;
             ScionService.componentState = componentState;
             MainActivity.updateUserInterface(this, state, componentState);
             notify(state, "SCION is " + state.toString().toLowerCase() + ".");
         });
+        scionLabAS.setProcessLogLevel(processLogLevel);
+        scionLabAS.setRuntimeProfile(runtimeProfile);
+        IntentFilter batteryFilter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
+        batteryFilter.addAction(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED);
+        Intent battery = registerReceiver(batteryReceiver, batteryFilter, null, handler);
+        if (battery != null)
+            updateBatteryPowerProfile(battery);
+        // no component is running yet, so this does not block
+        scionLabAS.setPowerProfile(getPowerProfile());
+        getSystemService(ConnectivityManager.class).registerNetworkCallback(new NetworkRequest.Builder()
+                .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET).build(), networkCallback, handler);
     }
 
     @Override
@@ -148,6 +313,10 @@ public class ScionService extends Service {
 
     @Override
     public void onDestroy() {
+        getSystemService(ConnectivityManager.class).unregisterNetworkCallback(networkCallback);
+        unregisterReceiver(batteryReceiver);
+        handler.removeCallbacks(handover);
+        handler.removeCallbacks(powerProfileSwitch);
         if (scionLabAS.getState() == ScionAS.State.STOPPED)
             return;
 
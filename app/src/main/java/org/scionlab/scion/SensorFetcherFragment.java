@@ -1,129 +1,159 @@
 package org.scionlab.scion;
 
-import android.content.Context;
+import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.util.Log;
+import android.text.format.DateFormat;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.webkit.WebView;
-import android.widget.LinearLayout;
-import android.widget.RelativeLayout;
 import android.widget.ScrollView;
 import android.widget.TextView;
-import android.widget.Toast;
 
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
 
-import org.scionlab.scion.as.Config;
-
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
 
-import org.scionlab.scion.as.Config;
-import static org.scionlab.scion.as.Config.SensorFetcher.*;
-import org.scionlab.scion.as.Process;
-import org.scionlab.scion.as.Storage;
+import org.scionlab.scion.as.AndroidPlatform;
+import org.scionlab.scion.as.SensorFetcher;
+import org.scionlab.scion.as.TimeSeriesStore;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-public class SensorFetcherFragment extends Fragment {
+import static org.scionlab.scion.as.Config.SensorFetcher.*;
 
-    TextView resultText;
-    TextInputEditText addressInput;
-    String result;
-    volatile InputStream executableInputStream;
-    FragmentActivity activity;
-    Thread inputStreamReaderThread;
-    Thread backgroundThread;
+/**
+ * Fetches sensor readings from one or more servers on a configurable interval and plots one
+ * sparkline per server and metric. Cached results are shown right away. The view is updated
+ * incrementally: new readings only update the affected rows, and the rows are only rebuilt
+ * when a new metric appears.
+ */
+public class SensorFetcherFragment extends Fragment {
+    private static final String SENSOR_SERVER = MainActivity.class.getCanonicalName() + ".SENSOR_SERVER";
+    private static final String SENSOR_INTERVAL = MainActivity.class.getCanonicalName() + ".SENSOR_INTERVAL";
+
+    private SensorFetcher sensorFetcher;
+    private SharedPreferences preferences;
+    private TextView resultText;
+    private TextInputEditText addressInput, intervalInput;
+    private SparklineView sparklineView;
+    private List<String> servers = new ArrayList<>();
+    private int seriesCount = -1;
+    private final AtomicBoolean isRefreshPending = new AtomicBoolean();
+    private final Runnable refresh = this::refresh;
+    private final Runnable listener = () -> {
+        SparklineView sparklineView = this.sparklineView;
+        if (sparklineView != null && isRefreshPending.compareAndSet(false, true))
+            sparklineView.post(refresh);
+    };
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         ScrollView layout = (ScrollView) inflater.inflate(R.layout.sensor_fetcher_fragment, container, false);
+        FragmentActivity activity = requireActivity();
+        preferences = activity.getPreferences(activity.MODE_PRIVATE);
+        if (sensorFetcher == null) {
+            sensorFetcher = new SensorFetcher(new AndroidPlatform(activity.getApplicationContext()));
+            sensorFetcher.addListener(reading -> listener.run());
+            sensorFetcher.getTimeSeriesStore().addListener(listener);
+        }
 
-        TextInputLayout pingAddressTextInputLayout = layout.findViewById(R.id.sensorFetcherAddressLayout);
-        pingAddressTextInputLayout.setEndIconOnClickListener(view -> {
-            run();
-        });
-
+        TextInputLayout addressTextInputLayout = layout.findViewById(R.id.sensorFetcherAddressLayout);
+        TextInputLayout intervalTextInputLayout = layout.findViewById(R.id.sensorFetcherIntervalLayout);
         resultText = layout.findViewById(R.id.sensorFetcherResult);
         addressInput = layout.findViewById(R.id.sensorFetcherAddressEdit);
-        addressInput.setText("17-ffaa:0:1102,[192.33.93.177]:42003");
-        activity = getActivity();
-
+        intervalInput = layout.findViewById(R.id.sensorFetcherIntervalEdit);
+        sparklineView = layout.findViewById(R.id.sensorFetcherSparklines);
+        addressInput.setText(preferences.getString(SENSOR_SERVER, DEFAULT_SERVER));
+        intervalInput.setText(String.valueOf(preferences.getLong(SENSOR_INTERVAL, DEFAULT_INTERVAL) / 1000));
+        addressTextInputLayout.setEndIconOnClickListener(view -> start());
+        intervalTextInputLayout.setEndIconOnClickListener(view -> start());
+
+        seriesCount = -1;
+        refresh();
         return layout;
     }
 
-    void startInputStreamReadThread() {
-        if (inputStreamReaderThread != null) {
-            inputStreamReaderThread.interrupt();
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        sparklineView = null;
+    }
+
+    @Override
+    public void onDestroy() {
+        if (sensorFetcher != null)
+            sensorFetcher.stop();
+        super.onDestroy();
+    }
+
+    private long getInterval() {
+        try {
+            return Math.max(Long.parseLong(intervalInput.getText().toString().trim()) * 1000, MIN_INTERVAL);
+        } catch (NumberFormatException e) {
+            return DEFAULT_INTERVAL;
         }
+    }
 
-        inputStreamReaderThread = new Thread(() -> {
-            InputStreamReader isr = new InputStreamReader(executableInputStream);
-            BufferedReader br = new BufferedReader(isr);
-
-            while (true) {
-                try {
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        final String line2 = line;
-                        activity.runOnUiThread(() -> {
-                            result += "\r\n" + line2;
-                            resultText.setText(result);
-                        });
-                    }
-                } catch (Exception e) {
-                    return;
-                }
-
-                try {
-                    Thread.sleep(100);
-                } catch (Exception e) {
-                    return;
-                }
-            }
+    // (Re)starts fetching from the entered servers on the entered interval.
+    private void start() {
+        String servers = addressInput.getText().toString().trim();
+        long interval = getInterval();
+        intervalInput.setText(String.valueOf(interval / 1000));
+        preferences.edit().putString(SENSOR_SERVER, servers).putLong(SENSOR_INTERVAL, interval).apply();
+        this.servers = new ArrayList<>(SensorFetcher.parseServers(servers));
+        sensorFetcher.start(SensorFetcher.parseServers(servers), interval);
+        seriesCount = -1;
+        refresh();
+    }
+
+    // Rows are labeled with the metric, prefixed with the server's number if there are several servers.
+    private void updateRows(TimeSeriesStore timeSeriesStore) {
+        List<TimeSeriesStore.Series> series = new ArrayList<>();
+        timeSeriesStore.forEach(_series -> {
+            if (servers.contains(_series.getGroup()))
+                series.add(_series);
         });
-        inputStreamReaderThread.start();
+        series.sort(Comparator.comparingInt((TimeSeriesStore.Series _series) -> servers.indexOf(_series.getGroup()))
+                .thenComparing(TimeSeriesStore.Series::getKey));
+
+        List<SparklineView.Row> rows = new ArrayList<>();
+        for (TimeSeriesStore.Series _series : series)
+            rows.add(new SparklineView.Row(servers.size() > 1
+                    ? String.format("(%d) %s", servers.indexOf(_series.getGroup()) + 1, _series.getKey())
+                    : _series.getKey(), _series.getRing(TimeSeriesStore.Resolution.RAW), "%.2f", 1.0));
+        sparklineView.setRows(rows);
     }
 
-    void run() {
-        if (backgroundThread != null && backgroundThread.isAlive()) {
-            Toast.makeText(getActivity(), "Already Running",
-                Toast.LENGTH_LONG).show();
-            return;
+    private String formatStatus() {
+        StringBuilder sb = new StringBuilder(getString(R.string.sensorFetching, getInterval() / 1000));
+        for (int i = 0; i < servers.size(); i++) {
+            SensorFetcher.Result result = sensorFetcher.getCachedResult(servers.get(i));
+            long sampleTime = result == null || result.getReadings().isEmpty() ? -1 : result.getReadings().get(0).getTime();
+            sb.append("\n");
+            if (servers.size() > 1)
+                sb.append(String.format("(%d) ", i + 1));
+            sb.append(servers.get(i));
+            if (sampleTime >= 0)
+                sb.append(getString(R.string.sensorLastSample, DateFormat.getTimeFormat(getContext()).format(sampleTime)));
         }
+        return sb.toString();
+    }
 
-        result = "";
-        final Context context = getContext();
-        final Storage storage = Storage.from(context);
-        final String destinationAddress = addressInput.getText().toString();
-
-        final Process.InputStreamHandler inputStreamHandler = new Process.InputStreamHandler() {
-            @Override
-            public void handle(InputStream stream) {
-                executableInputStream = stream;
-                startInputStreamReadThread();
-            }
-        };
-
-        backgroundThread = new Thread(() -> {
-            Process process = Process.from(
-                    Config.Scion.SCIONLAB_BINARY_PATH,
-                    "SensorFetcher",
-                    Storage.from(context),
-                    new UncaughtExceptionHandler(context));
-
-            process.addEnvironmentVariable(DISPATCHER_SOCKET_ENV, storage.getAbsolutePath(Config.Dispatcher.SOCKET_PATH))
-                    .addArgument(BINARY_FLAG)
-                    .addArgument(SERVER_FLAG, destinationAddress)
-                    .run(inputStreamHandler);
-        });
-        backgroundThread.start();
+    private void refresh() {
+        isRefreshPending.set(false);
+        if (sparklineView == null)
+            return;
+        TimeSeriesStore timeSeriesStore = sensorFetcher.getTimeSeriesStore();
+        if (timeSeriesStore.size() != seriesCount) {
+            seriesCount = timeSeriesStore.size();
+            updateRows(timeSeriesStore);
+        } else
+            sparklineView.update();
+        resultText.setText(sensorFetcher.isRunning() ? formatStatus() : "");
     }
 }
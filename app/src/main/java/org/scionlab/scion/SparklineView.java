@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+import org.scionlab.scion.as.TimeSeriesStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Draws one sparkline per row (with a label and the latest value) for a list of time series.
+ * Values are copied from the rings into preallocated arrays in update(), which should only be
+ * called when new data has arrived. Drawing reuses a single Path and does not allocate.
+ */
+public class SparklineView extends View {
+    private final List<Row> rows = new ArrayList<>();
+    private final Path path = new Path();
+    private final Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float rowHeight, padding, labelWidth;
+
+    static class Row {
+        private final String label, format;
+        private final double scale;
+        private final TimeSeriesStore.Ring ring;
+        private final float[] values;
+        private int count;
+        private float min, max;
+        private String value = "";
+
+        // The format is applied to the latest value multiplied by the scale.
+        Row(String label, TimeSeriesStore.Ring ring, String format, double scale) {
+            this.label = label;
+            this.ring = ring;
+            this.format = format;
+            this.scale = scale;
+            values = new float[ring.capacity()];
+        }
+
+        String getLabel() {
+            return label;
+        }
+
+        private void update() {
+            count = ring.copyValues(values);
+            min = Float.POSITIVE_INFINITY;
+            max = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                if (Float.isNaN(values[i]) || Float.isInfinite(values[i]))
+                    continue;
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            value = count == 0 ? "" : String.format(Locale.US, format, values[count - 1] * scale);
+        }
+    }
+
+    public SparklineView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        rowHeight = dp(40);
+        padding = dp(8);
+        labelWidth = dp(160);
+        linePaint.setStyle(Paint.Style.STROKE);
+        linePaint.setStrokeWidth(dp(1.5f));
+        linePaint.setColor(context.getColor(R.color.colorPrimary));
+        textPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 12,
+                getResources().getDisplayMetrics()));
+    }
+
+    private float dp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value, getResources().getDisplayMetrics());
+    }
+
+    void setRows(List<Row> rows) {
+        this.rows.clear();
+        this.rows.addAll(rows);
+        requestLayout();
+        update();
+    }
+
+    boolean hasRows() {
+        return !rows.isEmpty();
+    }
+
+    // Copies the latest values of all rows and redraws the view.
+    void update() {
+        for (Row row : rows)
+            row.update();
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        setMeasuredDimension(MeasureSpec.getSize(widthMeasureSpec),
+                resolveSize((int) (rows.size() * rowHeight), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        float width = getWidth(), textOffset = (rowHeight + textPaint.getTextSize()) / 2 - padding / 2;
+        float left = labelWidth, right = width - padding;
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            float top = i * rowHeight + padding / 2, bottom = (i + 1) * rowHeight - padding / 2;
+            canvas.drawText(row.label, 0, top + textOffset - textPaint.getTextSize() / 2, textPaint);
+            canvas.drawText(row.value, 0, top + textOffset + textPaint.getTextSize() / 2, textPaint);
+            if (row.count < 2 || right <= left)
+                continue;
+
+            // all samples share the available width, so the line fills up as the ring fills up
+            float step = (right - left) / (row.values.length - 1);
+            float range = row.max > row.min ? row.max - row.min : 1;
+            boolean isDrawing = false;
+            path.rewind();
+            for (int j = 0; j < row.count; j++) {
+                float value = row.values[j];
+                if (Float.isNaN(value) || Float.isInfinite(value)) {
+                    isDrawing = false;
+                    continue;
+                }
+                float x = left + (row.values.length - row.count + j) * step;
+                float y = bottom - (value - row.min) / range * (bottom - top);
+                if (isDrawing)
+                    path.lineTo(x, y);
+                else
+                    path.moveTo(x, y);
+                isDrawing = true;
+            }
+            canvas.drawPath(path, linePaint);
+        }
+    }
+}
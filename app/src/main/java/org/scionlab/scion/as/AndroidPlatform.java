@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import android.content.Context;
+import android.net.LocalSocket;
+import android.net.LocalSocketAddress;
+
+import org.scionlab.scion.UncaughtExceptionHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Runs the AS inside the app: files are stored in the app's directories, the SCION binary
+ * is shipped in jniLibs, crashes are reported with an intent and the VPN is provided by
+ * OpenVPN for Android.
+ */
+public class AndroidPlatform implements Platform {
+    private final Context context;
+
+    public AndroidPlatform(Context context) {
+        this.context = context;
+    }
+
+    @Override
+    public File getInternalFilesDirectory() {
+        return context.getFilesDir();
+    }
+
+    @Override
+    public File getExternalFilesDirectory() {
+        return context.getExternalFilesDir(null);
+    }
+
+    @Override
+    public boolean canConnect(File socket) {
+        try (LocalSocket localSocket = new LocalSocket()) {
+            localSocket.connect(new LocalSocketAddress(socket.getAbsolutePath(), LocalSocketAddress.Namespace.FILESYSTEM));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public InputStream openAsset(String path) throws IOException {
+        return context.getAssets().open(path);
+    }
+
+    @Override
+    public String getNativeLibraryDirectory() {
+        return context.getApplicationInfo().nativeLibraryDir;
+    }
+
+    @Override
+    public Thread.UncaughtExceptionHandler getUncaughtExceptionHandler() {
+        return new UncaughtExceptionHandler(context);
+    }
+
+    @Override
+    public VPNClient createVPNClient(String config) {
+        return new OpenVPNClient(context, config);
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import static org.scionlab.scion.as.Config.VPNClient.*;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.os.IBinder;
+import android.os.RemoteException;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.blinkt.openvpn.api.APIVpnProfile;
+import de.blinkt.openvpn.api.IOpenVPNAPIService;
+import de.blinkt.openvpn.api.IOpenVPNStatusCallback;
+
+/**
+ * Connects to the VPN through the OpenVPN for Android API. The connection is driven by the
+ * service connection and status callbacks (which run on binder threads): they advance the
+ * state machine below and complete futures, the component thread just waits for a failure.
+ * The configuration is added as an OpenVPN profile once and started by its UUID afterwards.
+ * When the underlying network is lost, the VPN is paused and resumed instead of restarted.
+ */
+class OpenVPNClient extends VPNClient {
+    private final Context context;
+    private final String config;
+    private final AtomicReference<VPNState> vpnState = new AtomicReference<>(VPNState.IDLE);
+    private volatile CompletableFuture<Void> connected = new CompletableFuture<>(), failed = new CompletableFuture<>();
+    private volatile IOpenVPNAPIService openVPNAPIService;
+    private volatile long bindTime = -1, connectLatency = -1, pauseTime = -1, resumeTime = -1, reconnectLatency = -1;
+    private final Set<Network> networks = ConcurrentHashMap.newKeySet();
+
+    enum VPNState {
+        IDLE, BINDING, STARTING, GENERATING_CONFIG, CONNECTED, PAUSED, RESUMING, FAILED
+    }
+
+    OpenVPNClient(Context context, String config) {
+        this.context = context;
+        this.config = config;
+    }
+
+    VPNState getVPNState() {
+        return vpnState.get();
+    }
+
+    // time (in ms) between binding to the VPN service and the connection being established, or -1
+    long getConnectLatency() {
+        return connectLatency;
+    }
+
+    // time (in ms) it took to re-establish the tunnel after the most recent pause, or -1
+    long getReconnectLatency() {
+        return reconnectLatency;
+    }
+
+    // A paused VPN is not fatal for dependent components, but the AS is not healthy meanwhile.
+    @Override
+    boolean isHealthy() {
+        return super.isHealthy() && (config == null || vpnState.get() == VPNState.CONNECTED);
+    }
+
+    private static String hash(String config) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(config.getBytes(StandardCharsets.UTF_8));
+            return String.format("%064x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Returns the UUID of the OpenVPN profile for our configuration. The profile is only added
+    // if it is not known yet (or was deleted by the user), profiles of old configurations are removed.
+    private String getProfileUUID(IOpenVPNAPIService openVPNAPIService) throws RemoteException {
+        SharedPreferences preferences = context.getSharedPreferences(PROFILE_PREFERENCES, Context.MODE_PRIVATE);
+        String key = hash(config), uuid = preferences.getString(key, null);
+        if (uuid != null)
+            for (APIVpnProfile profile : openVPNAPIService.getProfiles())
+                if (uuid.equals(profile.mUUID))
+                    return uuid;
+
+        for (Map.Entry<String, ?> e : preferences.getAll().entrySet())
+            if (!e.getKey().equals(key))
+                openVPNAPIService.removeProfile((String) e.getValue());
+        logger().i("adding VPN profile");
+        uuid = openVPNAPIService.addNewVPNProfile(PROFILE_NAME, false, config).mUUID;
+        preferences.edit().clear().putString(key, uuid).apply();
+        return uuid;
+    }
+
+    private void pause() {
+        IOpenVPNAPIService openVPNAPIService = this.openVPNAPIService;
+        if (openVPNAPIService == null || !vpnState.compareAndSet(VPNState.CONNECTED, VPNState.PAUSED))
+            return;
+        logger().i("network lost, pausing VPN client");
+        pauseTime = System.nanoTime();
+        resumeTime = -1;
+        try {
+            openVPNAPIService.pause();
+        } catch (RemoteException e) {
+            logger().e(e);
+        }
+        notifyStateChange();
+    }
+
+    private void resume() {
+        IOpenVPNAPIService openVPNAPIService = this.openVPNAPIService;
+        if (openVPNAPIService == null || !vpnState.compareAndSet(VPNState.PAUSED, VPNState.RESUMING))
+            return;
+        logger().i("network available, resuming VPN client");
+        resumeTime = System.nanoTime();
+        try {
+            openVPNAPIService.resume();
+        } catch (RemoteException e) {
+            logger().e(e);
+        }
+    }
+
+    private void reconnect() {
+        // measured from our resume (or from the pause if OpenVPN resumed by itself)
+        long since = resumeTime >= 0 ? resumeTime : pauseTime;
+        if (!vpnState.compareAndSet(VPNState.RESUMING, VPNState.CONNECTED) &&
+                !vpnState.compareAndSet(VPNState.PAUSED, VPNState.CONNECTED))
+            return;
+        reconnectLatency = (System.nanoTime() - since) / 1000000;
+        Metrics.getInstance().recordVPNReconnect(reconnectLatency / 1000.0);
+        logger().i("VPN tunnel re-established after %d ms", reconnectLatency);
+        notifyStateChange();
+    }
+
+    // tracks the underlying (non-VPN) networks, the VPN is paused while there is none
+    private final ConnectivityManager.NetworkCallback networkCallback = new ConnectivityManager.NetworkCallback() {
+        @Override
+        public void onAvailable(Network network) {
+            if (networks.add(network) && networks.size() == 1)
+                resume();
+        }
+
+        @Override
+        public void onLost(Network network) {
+            if (networks.remove(network) && networks.isEmpty())
+                pause();
+        }
+    };
+
+    private void fail(String reason) {
+        if (vpnState.getAndSet(VPNState.FAILED) != VPNState.FAILED) {
+            logger().e(reason);
+            failed.complete(null);
+        }
+    }
+
+    private void connect(String message) {
+        if (!vpnState.compareAndSet(VPNState.GENERATING_CONFIG, VPNState.CONNECTED))
+            return;
+        String[] parts = message.split(",");
+        if (parts.length > 2)
+            logger().i("local IP = %s, remote IP = %s", parts[1], parts[2]);
+        connectLatency = (System.nanoTime() - bindTime) / 1000000;
+        Metrics.getInstance().setVPNConnectLatency(connectLatency / 1000.0);
+        logger().i("VPN connected %d ms after binding to VPN service", connectLatency);
+        connected.complete(null);
+    }
+
+    private final IOpenVPNStatusCallback openVPNStatusCallback = new IOpenVPNStatusCallback.Stub() {
+        @Override
+        public void newStatus(String uuid, String state, String message, String level) {
+            if (message.isEmpty())
+                logger().i("%s", state);
+            else
+                logger().i("%s: %s", state, message);
+
+            switch (state) {
+                case NOPROCESS_STATE:
+                    if (vpnState.get() == VPNState.CONNECTED)
+                        fail("VPN client stopped by user");
+                    break;
+                case USERPAUSE_STATE:
+                case NONETWORK_STATE:
+                    // paused by the user or by OpenVPN itself, which is not fatal
+                    if (vpnState.compareAndSet(VPNState.CONNECTED, VPNState.PAUSED)) {
+                        pauseTime = System.nanoTime();
+                        resumeTime = -1;
+                        notifyStateChange();
+                    }
+                    break;
+                case VPN_GENERATE_CONFIG:
+                    // only the first configuration is ours, any further one means the user restarted the VPN
+                    if (!vpnState.compareAndSet(VPNState.STARTING, VPNState.GENERATING_CONFIG))
+                        fail("VPN client restarted by user");
+                    break;
+                case CONNECTED_STATE:
+                    connect(message);
+                    reconnect();
+                    break;
+            }
+        }
+    };
+
+    private final ServiceConnection serviceConnection = new ServiceConnection() {
+        public void onServiceConnected(ComponentName className, IBinder service) {
+            logger().i("established connection to VPN service");
+            openVPNAPIService = IOpenVPNAPIService.Stub.asInterface(service);
+            if (!vpnState.compareAndSet(VPNState.BINDING, VPNState.STARTING))
+                return;
+
+            try {
+                openVPNAPIService.registerStatusCallback(openVPNStatusCallback);
+                String uuid = null;
+                try {
+                    uuid = getProfileUUID(openVPNAPIService);
+                } catch (RemoteException | SecurityException e) {
+                    logger().w("could not add VPN profile, starting with inline configuration: %s", e.getMessage());
+                }
+                logger().i("starting VPN client");
+                if (uuid != null)
+                    openVPNAPIService.startProfile(uuid);
+                else
+                    openVPNAPIService.startVPN(config);
+            } catch (RemoteException e) {
+                logger().e(e);
+                fail("could not start VPN client");
+            }
+        }
+
+        public void onServiceDisconnected(ComponentName className) {
+            openVPNAPIService = null;
+            fail("lost connection to VPN service");
+        }
+    };
+
+    @Override
+    void run() {
+        connected = new CompletableFuture<>();
+        failed = new CompletableFuture<>();
+        connectLatency = -1;
+        reconnectLatency = -1;
+
+        try {
+            if (config == null) {
+                // without a configuration, we assume the device is connected to the network otherwise
+                setReady();
+                failed.get();
+                return;
+            }
+
+            connected.thenRun(this::setReady);
+            vpnState.set(VPNState.BINDING);
+            bindTime = System.nanoTime();
+            Intent intent = new Intent(IOpenVPNAPIService.class.getName()).setPackage(PACKAGE_NAME);
+            if (!context.bindService(intent, serviceConnection, Context.BIND_AUTO_CREATE))
+                fail("could not bind to VPN service, is OpenVPN for Android installed?");
+            networks.clear();
+            context.getSystemService(ConnectivityManager.class).registerNetworkCallback(new NetworkRequest.Builder()
+                    .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET).build(), networkCallback);
+            failed.get();
+            logger().e("VPN service crashed");
+        } catch (InterruptedException | ExecutionException ignored) {
+        } finally {
+            if (config != null)
+                disconnect();
+        }
+    }
+
+    private void disconnect() {
+        try {
+            context.getSystemService(ConnectivityManager.class).unregisterNetworkCallback(networkCallback);
+        } catch (IllegalArgumentException ignored) {
+        }
+
+        IOpenVPNAPIService openVPNAPIService = this.openVPNAPIService;
+        if (openVPNAPIService != null) {
+            try {
+                logger().i("stopping VPN client");
+                openVPNAPIService.unregisterStatusCallback(openVPNStatusCallback);
+                openVPNAPIService.disconnect();
+            } catch (RemoteException e) {
+                logger().e(e);
+            }
+        }
+
+        try {
+            context.unbindService(serviceConnection);
+        } catch (IllegalArgumentException ignored) {
+        }
+        this.openVPNAPIService = null;
+        vpnState.set(VPNState.IDLE);
+    }
+}
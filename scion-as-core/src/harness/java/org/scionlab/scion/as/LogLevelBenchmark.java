@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how many lines the simulated SCION processes produce and the app stores at different
+ * process log levels. The levels are changed like in the app (see ProcessLogLevel), through a
+ * stand-in for the /log/level endpoint that passes the level on to the simulator. Usage (see the
+ * logLevelBenchmark task):
+ * LogLevelBenchmark <seconds per level> <lines per second at debug level> [<result file>]
+ */
+public class LogLevelBenchmark {
+    private static final String[] SERVICES = {"dispatcher", "border", "cs", "sciond"};
+    // verbose while someone views the log, as configured, in the background, and verbose again on demand
+    private static final Logger.LogLevel[] LEVELS = {Logger.LogLevel.DEBUG, Logger.LogLevel.INFO,
+            Config.Logger.BACKGROUND_LOG_LEVEL, Logger.LogLevel.DEBUG};
+    private static final long SETTLE_TIME = 2500; // time (in ms) for a new level to reach the log thread (see Config.Logger.UPDATE_INTERVAL)
+
+    private static class Phase {
+        final String level;
+        final double linesReadPerSecond, linesStoredPerSecond;
+
+        Phase(String level, double linesReadPerSecond, double linesStoredPerSecond) {
+            this.level = level;
+            this.linesReadPerSecond = linesReadPerSecond;
+            this.linesStoredPerSecond = linesStoredPerSecond;
+        }
+    }
+
+    // Serves PUT /log/level like a SCION process and writes the requested level to the given file.
+    private static HttpServer startLogLevelEndpoint(File levelFile) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(Config.Logger.PROCESS_LOG_LEVEL_PATH, exchange -> {
+            try {
+                if (!exchange.getRequestMethod().equals("PUT")) {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+                String level = JsonParser.parseReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))
+                        .getAsJsonObject().get("level").getAsString();
+                Files.write(levelFile.toPath(), level.getBytes(StandardCharsets.UTF_8));
+                respond(exchange, String.format("{\"level\":\"%s\"}", level));
+            } catch (RuntimeException e) {
+                exchange.sendResponseHeaders(400, -1);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: LogLevelBenchmark <seconds per level> <lines per second at debug level> [<result file>]");
+            System.exit(2);
+        }
+        long duration = Long.parseLong(args[0]) * 1000;
+        int rate = Integer.parseInt(args[1]);
+
+        // the asset directory is not needed, as no configuration is written
+        SimulatedPlatform platform = new SimulatedPlatform(new File("."));
+        Process.initialize(platform);
+        Storage storage = Storage.from(platform);
+        LongAdder linesRead = new LongAdder(), linesStored = new LongAdder();
+        // filter lines like the app does by default
+        Logger.Tree tree = new Logger.Tree((tag, level, message) -> linesStored.increment());
+        Logger.setSink((priority, tag, message, t) -> {
+            // all SCION output is logged as DEBUG (see Logger.Tree)
+            if (priority == Logger.DEBUG)
+                linesRead.increment();
+            tree.log(priority, tag, message, t);
+        });
+
+        List<Thread> threads = new ArrayList<>();
+        List<HttpServer> servers = new ArrayList<>();
+        List<String> addresses = new ArrayList<>();
+        for (String service : SERVICES) {
+            File levelFile = new File(platform.getExternalFilesDirectory(), service + ".level");
+            HttpServer server = startLogLevelEndpoint(levelFile);
+            servers.add(server);
+            addresses.add("127.0.0.1:" + server.getAddress().getPort());
+            Process process = Process.from(Config.Scion.SCIONLAB_BINARY_PATH, service, storage, platform.getUncaughtExceptionHandler())
+                    .addEnvironmentVariable("SCION_SIM_READY_DELAY", "0")
+                    .addEnvironmentVariable("SCION_SIM_LOG_LINES", "0")
+                    .addEnvironmentVariable("SCION_SIM_FLOOD_RATE", String.valueOf(rate / SERVICES.length))
+                    .addEnvironmentVariable("SCION_SIM_LOG_LEVEL_FILE", levelFile.getAbsolutePath())
+                    .addArgument(service);
+            Thread thread = new Thread(process::run, service);
+            thread.start();
+            threads.add(thread);
+        }
+
+        List<Phase> phases = new ArrayList<>();
+        System.out.printf("%-8s %16s %16s %10s%n", "level", "lines read/s", "lines stored/s", "read");
+        for (Logger.LogLevel level : LEVELS) {
+            for (String address : addresses)
+                ProcessLogLevel.put(address, level);
+            Thread.sleep(SETTLE_TIME);
+            long read = linesRead.sum(), stored = linesStored.sum(), start = System.nanoTime();
+            Thread.sleep(duration);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Phase phase = new Phase(ProcessLogLevel.toProcessLogLevel(level),
+                    (linesRead.sum() - read) / seconds, (linesStored.sum() - stored) / seconds);
+            phases.add(phase);
+            System.out.printf("%-8s %16.0f %16.0f %9.0f%%%n", phase.level, phase.linesReadPerSecond,
+                    phase.linesStoredPerSecond, 100 * phase.linesReadPerSecond / phases.get(0).linesReadPerSecond);
+        }
+        threads.forEach(Thread::interrupt);
+        servers.forEach(server -> server.stop(0));
+        if (platform.getCrashes() > 0)
+            throw new IllegalStateException(platform.getCrashes() + " threads crashed");
+
+        if (args.length > 2) {
+            Map<String, Object> results = new LinkedHashMap<>();
+            results.put("secondsPerLevel", duration / 1000);
+            results.put("targetLinesPerSecond", rate);
+            results.put("phases", phases);
+            ResultFile.write(args[2], results);
+        }
+        platform.delete();
+        System.exit(0);
+    }
+}
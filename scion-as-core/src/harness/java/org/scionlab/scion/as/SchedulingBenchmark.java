@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures the echo RTT through a simulated border router while simulated control services keep
+ * all cores busy, with and without the scheduling policies of the components (see
+ * SchedulingPolicy). RTTs are parsed and recorded like in Scmp. Usage (see the
+ * schedulingBenchmark task):
+ * SchedulingBenchmark <seconds per scenario> [<result file>]
+ */
+public class SchedulingBenchmark {
+    private static final String PING_ADDRESS = "19-ffaa:0:1303,[10.0.8.1]";
+    private static final String PING_INTERVAL = "20"; // time (in ms) between echo requests
+    private static final long WARMUP = 3000; // time (in ms) before RTTs are recorded
+    private static final int BURNERS_PER_CORE = 2; // number of busy control services per core
+
+    private static class Scenario {
+        final String name;
+        final int burners;
+        final boolean hasSchedulingPolicies;
+        RttRecorder.Statistics statistics;
+
+        Scenario(String name, int burners, boolean hasSchedulingPolicies) {
+            this.name = name;
+            this.burners = burners;
+            this.hasSchedulingPolicies = hasSchedulingPolicies;
+        }
+    }
+
+    private static Thread start(Process process, String name) {
+        Thread thread = new Thread(process::run, name);
+        thread.start();
+        return thread;
+    }
+
+    private static void mkfifo(File fifo) throws IOException, InterruptedException {
+        if (new ProcessBuilder("mkfifo", fifo.getAbsolutePath()).inheritIO().start().waitFor() != 0)
+            throw new IOException("could not create " + fifo);
+    }
+
+    private static RttRecorder.Statistics run(SimulatedPlatform platform, Storage storage, Scenario scenario, long duration)
+            throws IOException, InterruptedException {
+        File forwardDirectory = platform.createDirectory("forward-" + scenario.name.replaceAll("\\W+", "-"));
+        mkfifo(new File(forwardDirectory, "request"));
+        mkfifo(new File(forwardDirectory, "reply"));
+        List<Thread> threads = new ArrayList<>();
+
+        threads.add(start(Process.from(Config.Scion.SCIONLAB_BINARY_PATH, "BorderRouter", storage, platform.getUncaughtExceptionHandler())
+                .setSchedulingPolicy(scenario.hasSchedulingPolicies ? Config.BorderRouter.SCHEDULING_POLICY : null)
+                .addEnvironmentVariable("SCION_SIM_READY_DELAY", "0")
+                .addEnvironmentVariable("SCION_SIM_LOG_LINES", "0")
+                .addEnvironmentVariable("SCION_SIM_FORWARD_DIR", forwardDirectory.getAbsolutePath())
+                .addArgument(Config.BorderRouter.BINARY_FLAG), "BorderRouter"));
+        for (int i = 0; i < scenario.burners; i++)
+            threads.add(start(Process.from(Config.Scion.SCIONLAB_BINARY_PATH, "ControlServer", storage, platform.getUncaughtExceptionHandler())
+                    .setSchedulingPolicy(scenario.hasSchedulingPolicies ? Config.ControlServer.SCHEDULING_POLICY : null)
+                    .addEnvironmentVariable("SCION_SIM_READY_DELAY", "0")
+                    .addEnvironmentVariable("SCION_SIM_LOG_LINES", "0")
+                    .addEnvironmentVariable("SCION_SIM_BURN", "1")
+                    .addArgument(Config.ControlServer.BINARY_FLAG), "ControlServer-" + i));
+
+        RttRecorder rttRecorder = new RttRecorder();
+        AtomicBoolean isRecording = new AtomicBoolean();
+        threads.add(start(Process.from(Config.Scion.SCIONLAB_BINARY_PATH, "Scmp", storage, platform.getUncaughtExceptionHandler())
+                .setSchedulingPolicy(scenario.hasSchedulingPolicies ? Config.Scmp.SCHEDULING_POLICY : null)
+                .addEnvironmentVariable("SCION_SIM_FORWARD_DIR", forwardDirectory.getAbsolutePath())
+                .addEnvironmentVariable("SCION_SIM_PING_INTERVAL", PING_INTERVAL)
+                .addArgument(Config.Scmp.BINARY_FLAG, Config.Scmp.ECHO_FLAG, PING_ADDRESS)
+                .watchFor(Config.Scmp.REPLY_PATTERN, matcher -> {
+                    if (isRecording.get())
+                        rttRecorder.record(Long.parseLong(matcher.group(1)), Scmp.parseRtt(matcher.group(2), matcher.group(3)));
+                }), "Scmp"));
+
+        Thread.sleep(WARMUP);
+        isRecording.set(true);
+        Thread.sleep(duration);
+        isRecording.set(false);
+        for (Thread thread : threads) {
+            thread.interrupt();
+            thread.join();
+        }
+        return rttRecorder.getStatistics(duration + Config.Scmp.RTT_SLOT_INTERVAL);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: SchedulingBenchmark <seconds per scenario> [<result file>]");
+            System.exit(2);
+        }
+        long duration = Long.parseLong(args[0]) * 1000;
+        int burners = BURNERS_PER_CORE * Runtime.getRuntime().availableProcessors();
+
+        // the asset directory is not needed, as no configuration is written
+        SimulatedPlatform platform = new SimulatedPlatform(new File("."));
+        Process.initialize(platform);
+        Storage storage = Storage.from(platform);
+        Logger.setSink((priority, tag, message, t) -> {
+            if (priority >= Logger.WARN)
+                System.err.printf("%s: %s%n", tag, message);
+        });
+
+        Scenario[] scenarios = {
+                new Scenario("idle", 0, false),
+                new Scenario("contention", burners, false),
+                new Scenario("contention, scheduling policies", burners, true)};
+        System.out.printf("%-32s %8s %8s %8s %8s %8s%n", "scenario", "count", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Scenario scenario : scenarios) {
+            scenario.statistics = run(platform, storage, scenario, duration);
+            System.out.printf("%-32s %8d %8.1f %8.1f %8.1f %8.1f%n", scenario.name, scenario.statistics.getCount(),
+                    scenario.statistics.getP50(), scenario.statistics.getP90(),
+                    scenario.statistics.getP99(), scenario.statistics.getMax());
+        }
+        if (platform.getCrashes() > 0)
+            throw new IllegalStateException(platform.getCrashes() + " threads crashed");
+
+        if (args.length > 1) {
+            Map<String, Object> results = new LinkedHashMap<>();
+            results.put("secondsPerScenario", duration / 1000);
+            results.put("burners", burners);
+            Map<String, Object> statistics = new LinkedHashMap<>();
+            for (Scenario scenario : scenarios)
+                statistics.put(scenario.name, scenario.statistics);
+            results.put("scenarios", statistics);
+            ResultFile.write(args[1], results);
+        }
+        platform.delete();
+        System.exit(0);
+    }
+}
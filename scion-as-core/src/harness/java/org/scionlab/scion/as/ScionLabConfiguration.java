@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import org.rauschig.jarchivelib.ArchiveFormat;
+import org.rauschig.jarchivelib.ArchiverFactory;
+import org.rauschig.jarchivelib.CompressionType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.Random;
+
+/**
+ * Generates SCIONLab configurations like the ones downloaded from the coordinator: a gen
+ * directory with the topology, TRCs, certificates and keys, and an OpenVPN configuration.
+ * Contents are random (but deterministic), so they compress like real keys and certificates.
+ */
+class ScionLabConfiguration {
+    static final int MIN_FILES = 6; // topology, TRC, AS certificate, two master keys and the AS key
+    private static final String TOPOLOGY = "{\"isd_as\": \"19-ffaa:1:e4b\", \"mtu\": 1472, \"border_routers\": {\"br-1\": "
+            + "{\"interfaces\": {\"1\": {\"isd_as\": \"19-ffaa:0:1303\", \"link_to\": \"PARENT\", \"mtu\": 1472, "
+            + "\"underlay\": {\"public\": \"10.0.8.2:50000\", \"remote\": \"10.0.8.1:50000\"}}}}}}";
+    private static final String AS = "ISD19-ASffaa_1_e4b";
+    private static final int TRC_SIZE = 6000, CERTIFICATE_SIZE = 1500, KEY_SIZE = 32; // in bytes, before encoding
+
+    private static String pem(Random random, String type, int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, new byte[]{'\n'}).encodeToString(bytes)
+                + "\n-----END " + type + "-----\n";
+    }
+
+    private static void write(File file, String content) throws IOException {
+        File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("could not create " + parent);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Writes a gen directory with the given number of files (at least MIN_FILES), the additional
+    // files are older TRCs and certificates.
+    static void writeGenDirectory(File genDirectory, int files) throws IOException {
+        Random random = new Random(files);
+        write(new File(genDirectory, "topology.json"), TOPOLOGY);
+        write(new File(genDirectory, "certs/ISD19-B1-S1.trc"), pem(random, "TRC", TRC_SIZE));
+        write(new File(genDirectory, "certs/" + AS + ".pem"), pem(random, "CERTIFICATE", CERTIFICATE_SIZE));
+        write(new File(genDirectory, "keys/master0.key"), Base64.getEncoder().encodeToString(new byte[KEY_SIZE]));
+        write(new File(genDirectory, "keys/master1.key"), Base64.getEncoder().encodeToString(new byte[KEY_SIZE]));
+        write(new File(genDirectory, "crypto/as/cp-as.key"), pem(random, "PRIVATE KEY", KEY_SIZE));
+        for (int i = MIN_FILES; i < files; i++)
+            if (i % 2 == 0)
+                write(new File(genDirectory, String.format("certs/ISD19-B1-S%d.trc", i)), pem(random, "TRC", TRC_SIZE));
+            else
+                write(new File(genDirectory, String.format("crypto/as/%s-%d.pem", AS, i)), pem(random, "CERTIFICATE", CERTIFICATE_SIZE));
+    }
+
+    // Writes a SCIONLab configuration to the given directory (in etc/scion and etc/openvpn, like the
+    // tarballs of the coordinator) and returns it as a gzipped tarball.
+    static byte[] createTarball(File directory, int files) throws IOException {
+        Random random = new Random(-files);
+        // the archiver omits the name of the archived directory, so this is the root of the tarball
+        File root = new File(directory, "root");
+        writeGenDirectory(new File(root, "etc/scion"), files);
+        write(new File(root, "etc/openvpn/client-scionlab-19-ffaa_1_e4b.conf"),
+                "client\ndev tun\nproto udp\nremote 192.0.2.1 1194\nnobind\npersist-key\npersist-tun\n"
+                        + "<ca>\n" + pem(random, "CERTIFICATE", CERTIFICATE_SIZE) + "</ca>\n"
+                        + "<cert>\n" + pem(random, "CERTIFICATE", CERTIFICATE_SIZE) + "</cert>\n"
+                        + "<key>\n" + pem(random, "PRIVATE KEY", KEY_SIZE * 40) + "</key>\n");
+        File tarball = ArchiverFactory.createArchiver(ArchiveFormat.TAR, CompressionType.GZIP)
+                .create("config", directory, root);
+        return Files.readAllBytes(tarball.toPath());
+    }
+}
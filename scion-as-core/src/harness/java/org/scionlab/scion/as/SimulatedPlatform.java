@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Runs an AS on a plain JVM with a simulator (scion-simulator.sh) in place of the SCION binary.
+ * Files are stored in a temporary directory, and the VPN is connected after SCION_SIM_VPN_DELAY
+ * ms (default 0, i.e., it is assumed to be connected already).
+ */
+class SimulatedPlatform implements Platform {
+    private static final String SIMULATOR_RESOURCE = "/scion-simulator.sh";
+    private static final String VPN_DELAY_VARIABLE = "SCION_SIM_VPN_DELAY";
+
+    private final File directory, assetDirectory, nativeLibraryDirectory;
+    private final AtomicInteger crashes = new AtomicInteger();
+
+    SimulatedPlatform(File assetDirectory) throws IOException {
+        this.assetDirectory = assetDirectory;
+        directory = Files.createTempDirectory("scion-as").toFile();
+        nativeLibraryDirectory = new File(directory, "lib");
+        File simulator = new File(nativeLibraryDirectory, Config.Scion.SCIONLAB_BINARY_PATH);
+        for (File _directory : new File[]{getInternalFilesDirectory(), getExternalFilesDirectory(), nativeLibraryDirectory})
+            if (!_directory.mkdirs())
+                throw new IOException("could not create " + _directory);
+        try (InputStream inputStream = SimulatedPlatform.class.getResourceAsStream(SIMULATOR_RESOURCE)) {
+            if (inputStream == null)
+                throw new IOException("simulator is missing");
+            Files.copy(inputStream, simulator.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (!simulator.setExecutable(true))
+            throw new IOException("could not make simulator executable");
+    }
+
+    // Creates a gen directory like the ones of SCIONLab configurations, to be passed to ScionAS.start.
+    String createGenDirectory() throws IOException {
+        File genDirectory = new File(directory, "gen");
+        ScionLabConfiguration.writeGenDirectory(genDirectory, ScionLabConfiguration.MIN_FILES);
+        return genDirectory.getAbsolutePath();
+    }
+
+    // Returns a new directory next to the platform's files, e.g., for fixtures.
+    File createDirectory(String name) throws IOException {
+        File _directory = new File(directory, name);
+        if (!_directory.mkdirs())
+            throw new IOException("could not create " + _directory);
+        return _directory;
+    }
+
+    // Deletes all files of the platform.
+    void delete() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Override
+    public File getInternalFilesDirectory() {
+        return new File(directory, "internal");
+    }
+
+    @Override
+    public File getExternalFilesDirectory() {
+        return new File(directory, "external");
+    }
+
+    @Override
+    public InputStream openAsset(String path) throws IOException {
+        return new FileInputStream(new File(assetDirectory, path));
+    }
+
+    @Override
+    public String getNativeLibraryDirectory() {
+        return nativeLibraryDirectory.getAbsolutePath();
+    }
+
+    @Override
+    public Thread.UncaughtExceptionHandler getUncaughtExceptionHandler() {
+        return (thread, e) -> {
+            crashes.incrementAndGet();
+            System.err.printf("thread %s crashed: ", thread.getName());
+            e.printStackTrace();
+        };
+    }
+
+    int getCrashes() {
+        return crashes.get();
+    }
+
+    // Java 8 cannot connect to Unix sockets, and the simulator does not create one anyway.
+    @Override
+    public boolean canConnect(File socket) {
+        return socket.exists();
+    }
+
+    @Override
+    public VPNClient createVPNClient(String config) {
+        long vpnDelay = Long.parseLong(System.getenv().getOrDefault(VPN_DELAY_VARIABLE, "0"));
+        if (vpnDelay <= 0)
+            return VPNClient.connected();
+        return new VPNClient() {
+            @Override
+            void run() {
+                try {
+                    Thread.sleep(vpnDelay);
+                    setReady();
+                    Thread.sleep(Long.MAX_VALUE);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        };
+    }
+}
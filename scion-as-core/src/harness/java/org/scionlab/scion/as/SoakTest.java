@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Floods the log with output of simulated SCION processes for a long time and fails if the
+ * retained heap (i.e., after a full GC) grows beyond a budget. Lines take the same path as in
+ * the app: from the process through the log thread and Logger.Tree into the LogStore. Usage
+ * (see the soakTest task):
+ * SoakTest <duration in s> <lines per second> <budget in MB> [<result file>]
+ */
+public class SoakTest {
+    private static final String[] SERVICES = {"dispatcher", "border", "cs", "sciond"};
+    private static final long SAMPLE_INTERVAL = 5000; // how frequently (in ms) to sample the heap
+    private static final double WARMUP = 0.2; // fraction of the duration after which the baseline is sampled
+    private static final long MAX_WARMUP = 60000; // longest warmup (in ms)
+    private static final int FINAL_SAMPLES = 3; // number of samples at the end that are compared to the baseline
+
+    private static class Sample {
+        final double time, retainedMB, gcSeconds;
+        final int threads;
+        final long lines;
+
+        Sample(double time, double retainedMB, int threads, double gcSeconds, long lines) {
+            this.time = time;
+            this.retainedMB = retainedMB;
+            this.threads = threads;
+            this.gcSeconds = gcSeconds;
+            this.lines = lines;
+        }
+    }
+
+    // Objects that are still being referenced, but not for long, make single samples noisy.
+    private static double getMinimumRetainedMB(List<Sample> samples) {
+        return samples.stream().mapToDouble(sample -> sample.retainedMB).min().orElse(Double.NaN);
+    }
+
+    private static Sample sample(long start, long lines) {
+        MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        memoryMXBean.gc();
+        long gcTime = 0;
+        for (GarbageCollectorMXBean garbageCollectorMXBean : ManagementFactory.getGarbageCollectorMXBeans())
+            gcTime += Math.max(0, garbageCollectorMXBean.getCollectionTime());
+        return new Sample((System.currentTimeMillis() - start) / 1000.0,
+                memoryMXBean.getHeapMemoryUsage().getUsed() / 1e6,
+                ManagementFactory.getThreadMXBean().getThreadCount(), gcTime / 1000.0, lines);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("usage: SoakTest <duration in s> <lines per second> <budget in MB> [<result file>]");
+            System.exit(2);
+        }
+        long duration = Long.parseLong(args[0]) * 1000;
+        int rate = Integer.parseInt(args[1]);
+        double budget = Double.parseDouble(args[2]);
+        long warmup = Math.min((long) (duration * WARMUP), MAX_WARMUP);
+
+        // the asset directory is not needed, as no configuration is written
+        SimulatedPlatform platform = new SimulatedPlatform(new File("."));
+        // the directory holds up to Config.LogStore.MAX_FILE_SIZE of stored lines
+        boolean isWithinBudget;
+        try {
+            Process.initialize(platform);
+            Storage storage = Storage.from(platform);
+            LogStore logStore = new LogStore(new File(platform.getExternalFilesDirectory(), Config.Logger.LOG_STORE_FILE));
+            LongAdder lines = new LongAdder();
+            Logger.Tree tree = new Logger.Tree((tag, level, message) -> {
+                logStore.append(tag, level, message);
+                lines.increment();
+            });
+            // store all lines, this is the worst case for the log view
+            tree.setLogLevel(Logger.LogLevel.TRACE);
+            Logger.setSink(tree);
+
+            List<Thread> threads = new ArrayList<>();
+            for (String service : SERVICES) {
+                Process process = Process.from(Config.Scion.SCIONLAB_BINARY_PATH, service, storage, platform.getUncaughtExceptionHandler())
+                        .addEnvironmentVariable("SCION_SIM_READY_DELAY", "0")
+                        .addEnvironmentVariable("SCION_SIM_LOG_LINES", "0")
+                        .addEnvironmentVariable("SCION_SIM_FLOOD_RATE", String.valueOf(rate / SERVICES.length))
+                        .addArgument(service);
+                Thread thread = new Thread(process::run, service);
+                thread.start();
+                threads.add(thread);
+            }
+
+            long start = System.currentTimeMillis();
+            List<Sample> samples = new ArrayList<>();
+            int baseline = -1; // index of the first sample after warmup
+            System.out.printf("%8s %12s %8s %8s %12s %12s%n", "time (s)", "retained MB", "threads", "GC (s)", "lines", "lines/s");
+            for (long now = start; now - start < duration; now = System.currentTimeMillis()) {
+                Thread.sleep(Math.min(SAMPLE_INTERVAL, start + duration - now));
+                Sample sample = sample(start, lines.sum());
+                Sample previous = samples.isEmpty() ? null : samples.get(samples.size() - 1);
+                samples.add(sample);
+                if (baseline < 0 && sample.time * 1000 >= warmup)
+                    baseline = samples.size() - 1;
+                System.out.printf("%8.0f %12.1f %8d %8.2f %12d %12.0f%n", sample.time, sample.retainedMB, sample.threads,
+                        sample.gcSeconds, sample.lines, previous == null ? sample.lines / sample.time
+                                : (sample.lines - previous.lines) / (sample.time - previous.time));
+            }
+            threads.forEach(Thread::interrupt);
+
+            if (baseline < 0 || samples.size() - baseline <= FINAL_SAMPLES)
+                throw new IllegalStateException("duration is too short to sample a baseline");
+            Sample first = samples.get(baseline), last = samples.get(samples.size() - 1);
+            double growth = getMinimumRetainedMB(samples.subList(samples.size() - FINAL_SAMPLES, samples.size()))
+                    - getMinimumRetainedMB(samples.subList(Math.max(0, baseline - FINAL_SAMPLES + 1), baseline + 1));
+            double linesPerSecond = (last.lines - first.lines) / (last.time - first.time);
+            isWithinBudget = growth <= budget;
+            System.out.printf("%nretained heap grew by %.1f MB (budget %.1f MB, %.2f bytes per line) at %.0f lines/s, "
+                            + "threads %d -> %d, GC time %.2f s%n", growth, budget,
+                    growth * 1e6 / Math.max(1, last.lines - first.lines), linesPerSecond,
+                    first.threads, last.threads, last.gcSeconds);
+            if (platform.getCrashes() > 0)
+                throw new IllegalStateException(platform.getCrashes() + " threads crashed");
+
+            if (args.length > 3) {
+                Map<String, Object> results = new LinkedHashMap<>();
+                results.put("durationSeconds", duration / 1000);
+                results.put("targetLinesPerSecond", rate);
+                results.put("linesPerSecond", linesPerSecond);
+                results.put("budgetMB", budget);
+                results.put("retainedGrowthMB", growth);
+                results.put("samples", samples);
+                ResultFile.write(args[3], results);
+            }
+        } finally {
+            platform.delete();
+        }
+        if (!isWithinBudget)
+            System.err.println("retained heap grew beyond the budget");
+        System.exit(isWithinBudget ? 0 : 1);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts an AS with the simulated SCION binary many times and measures the time until each
+ * component is ready and until the AS is healthy, as well as the number of threads and the
+ * memory allocated on the way. Usage (see the startupBenchmark task):
+ * StartupBenchmark <asset directory> <runs> [<result file>]
+ */
+public class StartupBenchmark {
+    private static final String PING_ADDRESS = "19-ffaa:0:1303,[10.0.8.1]";
+    private static final long HEALTHY_TIMEOUT = 60000; // how long (in ms) to wait for the AS to be healthy
+    private static final long STOP_TIMEOUT = 10000; // how long (in ms) to wait for the threads of a run to exit
+    private static final String HEALTHY = "AS";
+
+    private static class Run {
+        final Map<String, Double> timeToReady = new ConcurrentHashMap<>();
+        final CountDownLatch healthy = new CountDownLatch(1);
+        int threads, peakThreads;
+        long allocatedBytes;
+    }
+
+    // Sums the bytes allocated by all live threads. Threads that exit during a run are not
+    // counted, but the component threads keep running until the AS is stopped.
+    private static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return Arrays.stream(threadMXBean.getThreadAllocatedBytes(threadMXBean.getAllThreadIds()))
+                .filter(bytes -> bytes > 0).sum();
+    }
+
+    private static Run run(SimulatedPlatform platform, String genDirectory) throws InterruptedException {
+        Run run = new Run();
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        int initialThreads = threadMXBean.getThreadCount();
+        threadMXBean.resetPeakThreadCount();
+        long allocatedBytes = getAllocatedBytes();
+        long start = System.nanoTime();
+
+        ScionAS scionAS = new ScionAS(platform, (state, componentState) -> {
+            double time = (System.nanoTime() - start) / 1e6;
+            componentState.forEach((component, _state) -> {
+                if (_state == ScionAS.State.HEALTHY || _state == ScionAS.State.UNHEALTHY)
+                    run.timeToReady.putIfAbsent(component, time);
+            });
+            if (state == ScionAS.State.HEALTHY) {
+                run.timeToReady.putIfAbsent(HEALTHY, time);
+                run.healthy.countDown();
+            }
+        });
+        scionAS.start(ScionAS.Version.SCIONLAB, genDirectory, null, PING_ADDRESS);
+        boolean isHealthy = run.healthy.await(HEALTHY_TIMEOUT, TimeUnit.MILLISECONDS);
+        run.allocatedBytes = getAllocatedBytes() - allocatedBytes;
+        run.threads = threadMXBean.getThreadCount();
+        run.peakThreads = threadMXBean.getPeakThreadCount();
+        scionAS.stop();
+        if (!isHealthy)
+            throw new IllegalStateException("AS did not become healthy within " + HEALTHY_TIMEOUT + " ms, "
+                    + "ready components: " + run.timeToReady.keySet());
+
+        // let the threads of this run exit, so they do not count towards the next one
+        long deadline = System.currentTimeMillis() + STOP_TIMEOUT;
+        while (threadMXBean.getThreadCount() > initialThreads && System.currentTimeMillis() < deadline)
+            Thread.sleep(100);
+        return run;
+    }
+
+    private static Map<String, Double> summarize(List<Double> values) {
+        double[] sorted = values.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        Map<String, Double> summary = new LinkedHashMap<>();
+        summary.put("mean", Arrays.stream(sorted).average().orElse(Double.NaN));
+        summary.put("median", sorted[sorted.length / 2]);
+        summary.put("p95", sorted[(int) Math.ceil(sorted.length * 0.95) - 1]);
+        summary.put("max", sorted[sorted.length - 1]);
+        return summary;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: StartupBenchmark <asset directory> <runs> [<result file>]");
+            System.exit(2);
+        }
+        int runs = Integer.parseInt(args[1]);
+        SimulatedPlatform platform = new SimulatedPlatform(new File(args[0]));
+        // the directory holds the configuration and logs of all runs
+        try {
+            String genDirectory = platform.createGenDirectory();
+            // only show problems of the app, SCION output is logged with DEBUG priority
+            Logger.setSink((priority, tag, message, t) -> {
+                if (priority >= Logger.WARN)
+                    System.err.printf("%s: %s%n", tag, message);
+            });
+
+            Map<String, List<Double>> timeToReady = new LinkedHashMap<>();
+            Map<String, List<Double>> resources = new LinkedHashMap<>();
+            for (int i = 0; i < runs; i++) {
+                Run run = run(platform, genDirectory);
+                run.timeToReady.entrySet().stream()
+                        .sorted(Map.Entry.comparingByValue())
+                        .forEach(e -> timeToReady.computeIfAbsent(e.getKey(), key -> new ArrayList<>()).add(e.getValue()));
+                resources.computeIfAbsent("threads", key -> new ArrayList<>()).add((double) run.threads);
+                resources.computeIfAbsent("peakThreads", key -> new ArrayList<>()).add((double) run.peakThreads);
+                resources.computeIfAbsent("allocatedMB", key -> new ArrayList<>()).add(run.allocatedBytes / 1e6);
+                System.out.printf("run %d/%d: healthy after %.0f ms%n", i + 1, runs, run.timeToReady.get(HEALTHY));
+            }
+            if (platform.getCrashes() > 0)
+                throw new IllegalStateException(platform.getCrashes() + " component threads crashed");
+
+            Map<String, Object> results = new LinkedHashMap<>();
+            Map<String, Object> timeToReadySummary = new LinkedHashMap<>();
+            System.out.printf("%n%-16s %10s %10s %10s %10s%n", "ready (ms)", "mean", "median", "p95", "max");
+            timeToReady.forEach((component, values) -> {
+                Map<String, Double> summary = summarize(values);
+                timeToReadySummary.put(component, summary);
+                System.out.printf("%-16s %10.1f %10.1f %10.1f %10.1f%n", component,
+                        summary.get("mean"), summary.get("median"), summary.get("p95"), summary.get("max"));
+            });
+            Map<String, Object> resourcesSummary = new LinkedHashMap<>();
+            System.out.printf("%n%-16s %10s %10s %10s %10s%n", "when healthy", "mean", "median", "p95", "max");
+            resources.forEach((resource, values) -> {
+                Map<String, Double> summary = summarize(values);
+                resourcesSummary.put(resource, summary);
+                System.out.printf("%-16s %10.1f %10.1f %10.1f %10.1f%n", resource,
+                        summary.get("mean"), summary.get("median"), summary.get("p95"), summary.get("max"));
+            });
+            results.put("runs", runs);
+            results.put("timeToReady", timeToReadySummary);
+            results.put("resources", resourcesSummary);
+
+            if (args.length > 2) {
+                ResultFile.write(args[2], results);
+            }
+        } finally {
+            platform.delete();
+        }
+        System.exit(0);
+    }
+}
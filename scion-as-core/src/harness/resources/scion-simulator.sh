@@ -0,0 +1,164 @@
+#!/bin/sh
+# Simulates the SCION binary (libscion-scionlab.so) for benchmarks: accepts the same
+# subcommands, prints log lines in SCION's format and the lines the app waits for.
+# Timing is configured with environment variables (all in ms):
+#   SCION_SIM_READY_DELAY  time until a service is ready (default 500)
+#   SCION_SIM_LOG_LINES    number of log lines printed while starting (default 20)
+#   SCION_SIM_LOG_INTERVAL time between log lines once a service is ready (default 1000)
+#   SCION_SIM_RTT          round trip time reported by echo replies (default 20)
+# SCION_SIM_FLOOD_RATE makes ready services print that many lines per second instead (approximately,
+# in blocks of 100 lines every 100 ms) to test how the app copes with a flood of log output.
+# SCION_SIM_LOG_LEVEL_FILE names a file with the current log level (debug, info, warn or error) of
+# the flood, so a stand-in for the /log/level endpoint can change it at runtime (default debug).
+# SCION_SIM_FORWARD_DIR names a directory with the FIFOs "request" and "reply": the ready border
+# router forwards echo requests between them, and ping measures the RTT through it instead of
+# reporting SCION_SIM_RTT. SCION_SIM_PING_INTERVAL sets the time between echo requests (default
+# 1000). SCION_SIM_BURN=1 makes ready control services spin on the CPU, simulating contention.
+
+READY_DELAY=${SCION_SIM_READY_DELAY:-500}
+LOG_LINES=${SCION_SIM_LOG_LINES:-20}
+LOG_INTERVAL=${SCION_SIM_LOG_INTERVAL:-1000}
+RTT=${SCION_SIM_RTT:-20}
+FLOOD_RATE=${SCION_SIM_FLOOD_RATE:-0}
+LOG_LEVEL_FILE=${SCION_SIM_LOG_LEVEL_FILE:-}
+FORWARD_DIR=${SCION_SIM_FORWARD_DIR:-}
+PING_INTERVAL=${SCION_SIM_PING_INTERVAL:-1000}
+BURN=${SCION_SIM_BURN:-0}
+ISD_AS=19-ffaa:1:e4b
+REMOTE_ISD_AS=19-ffaa:0:1303
+CORE_ISD_AS=19-ffaa:0:1301
+
+sleep_ms() {
+    sleep "$(($1 / 1000)).$(printf '%03d' $(($1 % 1000)))"
+}
+
+log() {
+    echo "$(date -u '+%Y-%m-%d %H:%M:%S').000000+0000 [$1] $2"
+}
+
+# Prints FLOOD_RATE lines per second at the debug log level, mostly debug output. Fewer lines
+# are printed at higher log levels.
+flood() {
+    while true; do
+        ts="$(date -u '+%Y-%m-%d %H:%M:%S').000000+0000"
+        level=debug
+        [ -n "$LOG_LEVEL_FILE" ] && [ -s "$LOG_LEVEL_FILE" ] && level=$(cat "$LOG_LEVEL_FILE")
+        block=
+        j=0
+        while [ "$j" -lt 100 ]; do
+            case $((j % 10)),$level in
+                0,debug|0,info) line="$ts [INFO] [$1] Received pong from $REMOTE_ISD_AS,[10.0.8.1]:30041 RTT=$RTT.000ms" ;;
+                *,debug) line="$ts [DEBUG] [$1] Forwarding packet idx=$j src=$ISD_AS dst=$REMOTE_ISD_AS len=1400" ;;
+                *) line= ;;
+            esac
+            [ -n "$line" ] && block="$block$line
+"
+            j=$((j + 1))
+        done
+        i=0
+        while [ "$i" -lt $((FLOOD_RATE / 1000)) ]; do
+            printf '%s' "$block"
+            i=$((i + 1))
+        done
+        sleep 0.1
+    done
+}
+
+# Passes each echo request back as a reply, like a border router on the path of the echo.
+forward() {
+    while true; do
+        read -r packet < "$FORWARD_DIR/request"
+        echo "$packet" > "$FORWARD_DIR/reply"
+    done
+}
+
+burn() {
+    while true; do :; done
+}
+
+now_us() {
+    echo $(($(date +%s%N) / 1000))
+}
+
+# Prints the startup log of a service, spread over the ready delay, then the ready line and
+# periodic log lines until the process is stopped.
+service() {
+    name=$1
+    ready_line=$2
+    log INFO "Starting $name pid=$$ config=$config"
+    i=0
+    while [ "$i" -lt "$LOG_LINES" ]; do
+        sleep_ms $((READY_DELAY / (LOG_LINES + 1)))
+        log DEBUG "[$name] Loaded item idx=$i src=$ISD_AS"
+        i=$((i + 1))
+    done
+    sleep_ms $((READY_DELAY / (LOG_LINES + 1)))
+    log INFO "$ready_line"
+    [ "$FLOOD_RATE" -gt 0 ] && flood "$name"
+    [ "$name" = router ] && [ -n "$FORWARD_DIR" ] && forward
+    [ "$name" = cs ] && [ "$BURN" = 1 ] && burn
+    seq=0
+    while true; do
+        sleep_ms "$LOG_INTERVAL"
+        log DEBUG "[$name] Handler finished debug_id=$(printf '%08x' "$seq") took=$((RTT * 10))us"
+        seq=$((seq + 1))
+    done
+}
+
+ping() {
+    remote= count= prev=
+    for arg; do
+        case $prev in -c) count=$arg ;; esac
+        prev=$arg remote=$arg
+    done
+    echo "Resolved local address:"
+    echo "  10.0.8.2"
+    echo "Using path:"
+    echo "  Hops: [$ISD_AS 1>2 $REMOTE_ISD_AS] MTU: 1472 NextHop: 10.0.8.1:30041"
+    echo
+    echo "PING $remote pld=0B scion_pkt=80B"
+    seq=0
+    while [ -z "$count" ] || [ "$seq" -lt "$count" ]; do
+        if [ -n "$FORWARD_DIR" ]; then
+            start=$(now_us)
+            echo "$seq" > "$FORWARD_DIR/request"
+            read -r _ < "$FORWARD_DIR/reply"
+            rtt=$(($(now_us) - start))
+            echo "88 bytes from $remote: scmp_seq=$seq time=$((rtt / 1000)).$(printf '%03d' $((rtt % 1000)))ms"
+            sleep_ms "$PING_INTERVAL"
+        else
+            sleep_ms "$RTT"
+            echo "88 bytes from $remote: scmp_seq=$seq time=$RTT.000ms"
+            sleep_ms $((PING_INTERVAL - RTT))
+        fi
+        seq=$((seq + 1))
+    done
+}
+
+showpaths() {
+    echo "Available paths to $1"
+    echo "2 Hops:"
+    echo "[0] Hops: [$ISD_AS 1>2 $REMOTE_ISD_AS] MTU: 1472 NextHop: 10.0.8.1:30041 Expires: 2030-01-01 00:00:00 +0000 Status: alive LocalIP: 10.0.8.2"
+    echo "3 Hops:"
+    echo "[1] Hops: [$ISD_AS 1>3 $CORE_ISD_AS 4>5 $REMOTE_ISD_AS] MTU: 1472 NextHop: 10.0.8.1:30041 Expires: 2030-01-01 00:00:00 +0000 Status: alive LocalIP: 10.0.8.2"
+}
+
+for arg; do
+    case $prev in --config) config=$arg ;; esac
+    prev=$arg
+done
+
+case "$1" in
+    dispatcher) service dispatcher "Service started SCION Dispatcher" ;;
+    border) service router "Service started SCION Router" ;;
+    cs) service cs "Started periodic tasks" ;;
+    sciond) service sciond "Service started SCION Daemon" ;;
+    scion)
+        case "$2" in
+            ping) shift 2; ping "$@" ;;
+            showpaths) shift 2; showpaths "$1" ;;
+            version) echo "Scion version: v2020.12-simulated" ;;
+            *) echo "unknown command $2" >&2; exit 2 ;;
+        esac ;;
+    *) echo "unknown service $1" >&2; exit 2 ;;
+esac
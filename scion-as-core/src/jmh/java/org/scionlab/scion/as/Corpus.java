@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Log output of the SCION components at the info, debug and trace log levels, as read from
+ * their processes (i.e., including timestamps). The corpora are synthetic, they are generated
+ * by CorpusGenerator in the formats of the SCION components instead of being recorded. Each
+ * corpus has exactly LINES lines, so benchmarks can report throughput in lines.
+ */
+class Corpus {
+    static final int LINES = 1000;
+
+    static byte[] read(String level) throws IOException {
+        try (InputStream inputStream = Corpus.class.getResourceAsStream("/corpus/" + level + ".log")) {
+            if (inputStream == null)
+                throw new IOException("no corpus for log level " + level);
+            byte[] buffer = new byte[8192];
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            for (int n = inputStream.read(buffer); n >= 0; n = inputStream.read(buffer))
+                outputStream.write(buffer, 0, n);
+            return outputStream.toByteArray();
+        }
+    }
+
+    static String[] lines(String level) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(read(level)), StandardCharsets.UTF_8))) {
+            for (String line = br.readLine(); line != null; line = br.readLine())
+                lines.add(line);
+        }
+        if (lines.size() != LINES)
+            throw new IOException(String.format("corpus %s has %d lines instead of %d", level, lines.size(), LINES));
+        return lines.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Generates the synthetic corpora in src/jmh/resources/corpus. The lines imitate the output of
+ * the dispatcher, border router, control service and daemon (message formats, log level prefixes,
+ * addresses and continuation lines), but they are not recorded from real processes. The level of a
+ * corpus decides the mix of lines, e.g., the trace corpus mostly has per-packet lines. The seed is
+ * fixed, so the corpora only change with this class. Usage (see the generateCorpus task):
+ * CorpusGenerator <corpus directory>
+ */
+public class CorpusGenerator {
+    private static final long SEED = 41;
+    private static final String[] ISD_AS = {"19-ffaa:1:e4b", "19-ffaa:0:1303", "17-ffaa:0:1107", "19-ffaa:0:1301", "20-ffaa:0:1401"};
+    private static final String[] HOSTS = {"127.0.0.1", "10.0.8.2", "10.0.8.1"};
+    private static final int[] PORTS = {30041, 30252, 31045};
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS'+0000 '");
+    private static final long MAX_LINE_INTERVAL = 400000; // longest time (in µs) between two lines
+    private static final int READY_LINE = 10; // index of the line a component is watched for until it is ready
+
+    private final Random random = new Random(SEED);
+    private LocalDateTime time = LocalDateTime.of(2020, 6, 4, 12, 0);
+
+    private final List<Supplier<String>> info = Arrays.asList(
+            () -> String.format("[INFO] Registered with dispatcher addr=%s", address()),
+            () -> String.format("[INFO] [beaconing.Registrar] Registered beacons count=%d startIA=%s segType=up", between(1, 5), pick(ISD_AS)),
+            () -> String.format("[INFO] [beaconing.Originator] Originated beacons egIfIds=[%d]", between(1, 3)),
+            () -> String.format(Locale.US, "[INFO] Received pong from %s RTT=%.3fms", address(), 5 + 75 * random.nextDouble()),
+            () -> String.format("[INFO] [revcheck] Revocation check finished revoked=0 checked=%d", between(1, 20)),
+            () -> String.format("[INFO] Path lookup finished src=%s dst=%s paths=%d", pick(ISD_AS), pick(ISD_AS), between(0, 6)),
+            () -> String.format("[INFO] Fetched TRC isd=%s base=1 serial=%d", pick("17", "19", "20"), between(1, 5)));
+    private final List<Supplier<String>> warn = Arrays.asList(
+            () -> String.format("[WARN] Unable to send keepalive ifid=%d err=\"dial udp: connection refused\"", between(1, 3)),
+            () -> String.format("[WARN] [segfetcher] Failed to fetch segments from %s err=\"context deadline exceeded\"", address()));
+    private final List<Supplier<String>> error = Arrays.asList(
+            () -> String.format("[EROR] Unable to handle request debug_id=%s err=\"timeout\"", hex(8)));
+    private final List<Supplier<String>> debug = Arrays.asList(
+            () -> String.format("[DEBUG] Forwarding packet src=%s dst=%s len=%d", address(), address(), between(64, 1400)),
+            () -> String.format("[DEBUG] Handler finished debug_id=%s msg_type=%s took=%dus", hex(8),
+                    pick("PathSegmentReq", "ChainReq", "TRCReq", "IFStateReq"), between(20, 3000)),
+            () -> String.format("[DEBUG] [keepalive.Sender] Sent keepalives ifids=[%d]", between(1, 3)),
+            () -> String.format("[DEBUG] [PathReqHandler] Received request src=%s dst=%s flags={Refresh:false}", pick(ISD_AS), pick(ISD_AS)),
+            () -> String.format("[DEBUG] [PathReqHandler] Replied with paths num_paths=%d path=%s", between(1, 6), path()),
+            () -> String.format("[DEBUG] Registered new socket addr=%s svc=none", address()),
+            () -> String.format("[DEBUG] [messenger] Sent reply debug_id=%s remote=%s", hex(8), address()));
+    private final List<Supplier<String>> trace = Arrays.asList(
+            () -> String.format("[TRACE] [DBUG] Dispatcher read packet len=%d from=%s", between(64, 1400), address()),
+            () -> String.format("[TRACE] [DBUG] Enqueued packet for ifid=%d queue_len=%d", between(1, 3), between(0, 32)),
+            () -> String.format("[TRACE] [DBUG] Processing hop field idx=%d ingress=%d egress=%d", between(0, 5), between(0, 3), between(0, 3)),
+            () -> String.format("[TRACE] [DBUG] Cache lookup key=%s hit=%s", hex(16), pick("true", "false")));
+    // continuation lines without a timestamp, e.g., of path listings and stack traces
+    private final List<Supplier<String>> other = Arrays.asList(
+            () -> "> " + path(),
+            () -> "    " + pick("goroutine 1 [running]:", "main.realMain()",
+                    String.format("\t/scion/go/border/main.go:93 +0x%x", random.nextInt(1 << 12))));
+
+    private int between(int from, int to) {
+        return from + random.nextInt(to - from + 1);
+    }
+
+    private String pick(String... choices) {
+        return choices[random.nextInt(choices.length)];
+    }
+
+    private String hex(int digits) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < digits; i++)
+            sb.append(Character.forDigit(random.nextInt(16), 16));
+        return sb.toString();
+    }
+
+    private String address() {
+        // one in four addresses has a dynamic port
+        int port = random.nextInt(4) == 0 ? between(50000, 50999) : PORTS[random.nextInt(PORTS.length)];
+        return String.format("%s,[%s]:%d", pick(ISD_AS), pick(HOSTS), port);
+    }
+
+    private String path() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = between(1, 4); i > 0; i--)
+            sb.append(pick(ISD_AS)).append(' ').append(between(1, 9)).append(i > 1 ? ">" : "");
+        return sb.toString();
+    }
+
+    private String line(Supplier<String> supplier) {
+        time = time.plusNanos(1000L * (10 + (long) (random.nextDouble() * MAX_LINE_INTERVAL)));
+        String text = supplier.get();
+        return text.startsWith(">") || text.startsWith(" ") ? text : TIMESTAMP_FORMAT.format(time) + text;
+    }
+
+    // Returns Corpus.LINES lines, each drawn from the given groups with the given weights (in percent).
+    @SafeVarargs
+    private final String generate(int[] weights, List<Supplier<String>>... groups) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Corpus.LINES; i++) {
+            List<Supplier<String>> group = groups[groups.length - 1];
+            for (int j = 0, r = random.nextInt(100); j < weights.length; r -= weights[j++])
+                if (r < weights[j]) {
+                    group = groups[j];
+                    break;
+                }
+            List<Supplier<String>> _group = group;
+            sb.append(line(i == READY_LINE ? () -> "[INFO] Service started SCION Router id=br-1"
+                    : () -> _group.get(random.nextInt(_group.size())).get())).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void write(File directory, String level, String corpus) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(new File(directory, level + ".log").toPath(), StandardCharsets.UTF_8)) {
+            writer.write(corpus);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: CorpusGenerator <corpus directory>");
+            System.exit(2);
+        }
+        File directory = new File(args[0]);
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("could not create " + directory);
+        CorpusGenerator generator = new CorpusGenerator();
+        write(directory, "info", generator.generate(new int[]{85, 10, 3, 2},
+                generator.info, generator.warn, generator.error, generator.other));
+        write(directory, "debug", generator.generate(new int[]{70, 24, 3, 1, 2},
+                generator.debug, generator.info, generator.warn, generator.error, generator.other));
+        write(directory, "trace", generator.generate(new int[]{60, 28, 9, 1, 1, 1},
+                generator.trace, generator.debug, generator.info, generator.warn, generator.error, generator.other));
+    }
+}
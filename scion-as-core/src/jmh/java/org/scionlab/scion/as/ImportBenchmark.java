@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.rauschig.jarchivelib.ArchiveFormat;
+import org.rauschig.jarchivelib.ArchiverFactory;
+import org.rauschig.jarchivelib.CompressionType;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.scionlab.scion.as.Config.Scion.*;
+
+/**
+ * Measures the stages of importing a SCIONLab configuration on the file system (in a temporary
+ * directory), as well as the whole configuration phase of ScionLabAS.start, for configurations
+ * with different numbers of files. Every invocation starts from the same files on disk.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 30)
+@State(Scope.Thread)
+public class ImportBenchmark {
+    private static final String EXTRACT_PATH = "EXTERNAL/extract"; // target of the extract benchmark
+    private static final String EXTRACTED_PATH = "EXTERNAL/extracted"; // configuration that the other stages work on
+    private static final String EXTRACTED_GEN_PATH = EXTRACTED_PATH + "/etc/scion";
+    private static final String EXTRACTED_VPN_PATH = EXTRACTED_PATH + "/etc/openvpn";
+    private static final String COPY_PATH = "EXTERNAL/copy"; // target of the copy benchmark
+    private static final String DELETE_PATH = "EXTERNAL/delete"; // target of the delete benchmark
+    private static final String[] CONFIG_PATHS = {Config.Dispatcher.CONFIG_PATH, Config.BorderRouter.CONFIG_PATH,
+            Config.ControlServer.CONFIG_PATH, Config.Daemon.CONFIG_PATH, TOPOLOGY_PATH};
+
+    // number of files in the gen directory (the import fails above GEN_DIRECTORY_FILE_LIMIT, including directories)
+    @Param({"6", "24", "90"})
+    public int files;
+
+    private SimulatedPlatform platform;
+    private Storage storage;
+    private ScionLabAS scionLabAS;
+    private byte[] tarball;
+    private String[] configs;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        platform = new SimulatedPlatform(new File(System.getProperty("scion.assets", "../app/src/main/assets")));
+        Process.initialize(platform);
+        storage = Storage.from(platform);
+        scionLabAS = new ScionLabAS(platform, (state, componentState) -> {
+        });
+        tarball = ScionLabConfiguration.createTarball(platform.createDirectory("configuration"), files);
+        configs = new String[CONFIG_PATHS.length];
+        for (int i = 0; i < CONFIG_PATHS.length; i++)
+            configs[i] = storage.readAssetFile(new File(CONFIG_PATHS[i]).getName());
+        if (!scionLabAS.configure(new ByteArrayInputStream(tarball)))
+            throw new IllegalStateException("generated configuration is invalid");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        platform.delete();
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() throws IOException {
+        storage.deleteFileOrDirectory(EXTRACT_PATH);
+        storage.deleteFileOrDirectory(TMP_DIRECTORY_PATH);
+        storage.deleteFileOrDirectory(COPY_PATH);
+        storage.deleteFileOrDirectory(CONFIG_DIRECTORY_PATH);
+        if (!storage.getFile(EXTRACTED_PATH).isDirectory())
+            extract(EXTRACTED_PATH);
+        storage.copyFileOrDirectory(EXTRACTED_GEN_PATH, DELETE_PATH);
+    }
+
+    private void extract(String path) throws IOException {
+        ArchiverFactory.createArchiver(ArchiveFormat.TAR, CompressionType.GZIP)
+                .extract(new ByteArrayInputStream(tarball), storage.getFile(path));
+    }
+
+    @Benchmark
+    public void extract() throws IOException {
+        extract(EXTRACT_PATH);
+    }
+
+    @Benchmark
+    public void findInDirectory(Blackhole blackhole) {
+        blackhole.consume(storage.findInDirectory(EXTRACTED_VPN_PATH, TMP_VPN_CONFIG_PATH_REGEX));
+        blackhole.consume(storage.findInDirectory(EXTRACTED_GEN_PATH, CERTS_DIRECTORY_PATH_REGEX));
+        blackhole.consume(storage.findInDirectory(EXTRACTED_GEN_PATH, KEYS_DIRECTORY_PATH_REGEX));
+        blackhole.consume(storage.findInDirectory(EXTRACTED_GEN_PATH, CRYPTO_DIRECTORY_PATH_REGEX));
+        blackhole.consume(storage.findInDirectory(EXTRACTED_GEN_PATH, TOPOLOGY_PATH_REGEX));
+    }
+
+    @Benchmark
+    public void copyFileOrDirectory() {
+        storage.copyFileOrDirectory(EXTRACTED_GEN_PATH, COPY_PATH);
+    }
+
+    @Benchmark
+    public void deleteFileOrDirectory() {
+        storage.deleteFileOrDirectory(DELETE_PATH);
+    }
+
+    @Benchmark
+    public void writeFile() {
+        for (int i = 0; i < CONFIG_PATHS.length; i++)
+            storage.writeFile(CONFIG_PATHS[i], configs[i]);
+    }
+
+    // extracting, checking, copying and writing the configuration, and deleting the extracted files
+    @Benchmark
+    public boolean configure() throws IOException {
+        return scionLabAS.configure(new ByteArrayInputStream(tarball));
+    }
+}
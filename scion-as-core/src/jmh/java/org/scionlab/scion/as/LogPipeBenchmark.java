@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the whole path of SCION output, from the process' output stream to the consumer of
+ * the log tree: decoding and reading lines, stripping and watching them in the log thread,
+ * counting them and classifying them in the tree with the default log level.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+public class LogPipeBenchmark {
+    private static final String TAG = "BorderRouter";
+
+    @Param({"info", "debug", "trace"})
+    public String corpus;
+
+    private byte[] output;
+    private Logger.LogThread logThread;
+
+    @Setup
+    public void setup(Blackhole blackhole) throws IOException {
+        output = Corpus.read(corpus);
+        Logger.setSink(new Logger.Tree((tag, level, message) -> blackhole.consume(message)));
+        logThread = Logger.createLogThread(TAG, null)
+                .watchFor(Config.BorderRouter.READY_PATTERN, () -> blackhole.consume(true))
+                .watchFor(Config.BorderRouter.VPN_NOT_READY_PATTERN, () -> blackhole.consume(false));
+    }
+
+    @TearDown
+    public void tearDown() {
+        Logger.setSink((priority, tag, message, t) -> {
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Corpus.LINES)
+    public void readLines() throws IOException {
+        logThread.readLines(new BufferedReader(new InputStreamReader(new ByteArrayInputStream(output))));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.scionlab.scion.as.Config.Logger.*;
+
+/**
+ * Measures how fast a log thread handles single lines, i.e., strips the timestamp and matches
+ * the watch patterns of the border router (which watches for the most patterns).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+public class LogThreadBenchmark {
+    @Param({"info", "debug", "trace"})
+    public String corpus;
+
+    private String[] lines;
+    private Logger.LogThread logThread;
+
+    @Setup
+    public void setup(Blackhole blackhole) throws IOException {
+        lines = Corpus.lines(corpus);
+        logThread = new Logger.LogThread(blackhole::consume, DELETE_PATTERN, UPDATE_INTERVAL, null)
+                .watchFor(Config.BorderRouter.READY_PATTERN, () -> blackhole.consume(true))
+                .watchFor(Config.BorderRouter.VPN_NOT_READY_PATTERN, () -> blackhole.consume(false));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Corpus.LINES)
+    public void handleLine() {
+        for (String line : lines)
+            logThread.handleLine(line);
+    }
+}
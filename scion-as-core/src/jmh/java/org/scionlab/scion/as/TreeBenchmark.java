@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.scionlab.scion.as.Config.Logger.*;
+
+/**
+ * Measures how fast Logger.Tree classifies SCION output by its log level and filters it, with
+ * the default log level and with everything shown.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+public class TreeBenchmark {
+    private static final String TAG = "BorderRouter";
+
+    @Param({"info", "debug", "trace"})
+    public String corpus;
+
+    @Param({"INFO", "TRACE"})
+    public Logger.LogLevel logLevel;
+
+    private String[] lines;
+    private Logger.Tree tree;
+
+    @Setup
+    public void setup(Blackhole blackhole) throws IOException {
+        lines = Corpus.lines(corpus);
+        // the tree only sees lines after the log thread has stripped them
+        for (int i = 0; i < lines.length; i++)
+            lines[i] = DELETE_PATTERN.matcher(lines[i]).replaceAll("");
+        tree = new Logger.Tree((tag, level, message) -> blackhole.consume(message));
+        tree.setLogLevel(logLevel);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Corpus.LINES)
+    public void log() {
+        for (String line : lines)
+            tree.log(Logger.DEBUG, TAG, line, null);
+    }
+}
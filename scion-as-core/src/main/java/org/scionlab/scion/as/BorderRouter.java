@@ -17,32 +17,55 @@
 
 package org.scionlab.scion.as;
 
-import timber.log.Timber;
-
 import static org.scionlab.scion.as.Config.BorderRouter.*;
 
 class BorderRouter extends Component {
     @Override
     Class[] dependsOn() {
-        return new Class[]{Dispatcher.class, VPNClient.class};
+        return new Class[]{Dispatcher.class};
+    }
+
+    // binds to the address of the VPN tunnel
+    @Override
+    Class[] dependsOnUnderlay() {
+        return new Class[]{VPNClient.class};
+    }
+
+    @Override
+    String getConfigPath() {
+        return CONFIG_PATH;
+    }
+
+    @Override
+    String renderConfig() {
+        return getConfigTemplate(CONFIG_TEMPLATE_PATH)
+                .set("config_dir", storage.getAbsolutePath(Config.Scion.CONFIG_DIRECTORY_PATH))
+                .set("log_level", LOG_LEVEL)
+                .render();
     }
 
     @Override
-    boolean prepare() {
-        storage.writeFile(CONFIG_PATH, String.format(
-                storage.readAssetFile(CONFIG_TEMPLATE_PATH),
-                storage.getAbsolutePath(Config.Scion.CONFIG_DIRECTORY_PATH),
-                LOG_LEVEL));
+    boolean isDataPlane() {
         return true;
     }
 
+    @Override
+    SchedulingPolicy getSchedulingPolicy() {
+        return SCHEDULING_POLICY;
+    }
+
+    @Override
+    ReadinessProbe[] readinessProbes() {
+        return new ReadinessProbe[]{ReadinessProbe.metrics(METRICS_ADDRESS)};
+    }
+
     @Override
     void run() {
         process.connectToDispatcher()
                 .addArgument(BINARY_FLAG)
                 .addConfigurationFile(CONFIG_PATH)
                 .watchFor(READY_PATTERN,() -> setReady()).watchFor(VPN_NOT_READY_PATTERN, () ->
-                Timber.e("could not start border router, please check VPN connection"))
+                Logger.e("could not start border router, please check VPN connection"))
                 .run();
     }
 }
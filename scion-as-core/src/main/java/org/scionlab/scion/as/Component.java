@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Think of SCION components as "Docker containers": They can be started, stopped,
+ * and have a state that usually transitions from STOPPED to STARTING and then READY.
+ * This serves the same purpose as the SCION services in /lib/systemd/system on Linux.
+ */
+abstract class Component {
+    // unset when the component is unregistered, which may happen while its thread is still running
+    volatile ComponentRegistry componentRegistry;
+    Storage storage;
+    Process process;
+    private AtomicReference<Thread> threadRef;
+    private boolean doneWaiting = false, isReady = false;
+    private volatile String config; // configuration file as written by the last call to prepare()
+    private final Object dependencyLock = new Object(); // notified whenever any component's state changes
+
+    enum State {
+        STOPPED, STARTING, READY
+    }
+
+    void setComponentRegistry(ComponentRegistry componentRegistry) {
+        this.componentRegistry = componentRegistry;
+        threadRef = new AtomicReference<>();
+    }
+
+    private boolean isRunning() {
+        return threadRef.get() != null;
+    }
+
+    Logger.Tag logger() {
+        return Logger.tag(getTag());
+    }
+
+    boolean isHealthy() {
+        return getState() == State.READY;
+    }
+
+    // Is called when the component transitions from STARTING to READY. Should only
+    // be called from within run() or by a ReadinessProber. Note that a crash of the component should cause
+    // run() to exit instead of setting isReady = false;
+    void setReady() {
+        synchronized (this) {
+            if (!isReady) {
+                logger().i("component is ready");
+                isReady = true;
+                if (componentRegistry != null)
+                    componentRegistry.notifyReady(this);
+            }
+        }
+        notifyStateChange();
+    }
+
+    // Notifies all components of the registry, so this must not be called while holding
+    // this component's lock (otherwise, two components may wait for each other).
+    void notifyStateChange() {
+        ComponentRegistry componentRegistry = this.componentRegistry;
+        if (componentRegistry != null)
+            componentRegistry.notifyStateChange();
+    }
+
+    State getState() {
+        if (!isRunning())
+            return State.STOPPED;
+        return isReady ? State.READY : State.STARTING;
+    }
+
+    ScionAS.State getScionState() {
+        switch (getState()) {
+            case STOPPED:
+                return ScionAS.State.STOPPED;
+            case STARTING:
+                return ScionAS.State.STARTING;
+            default:
+                return isHealthy() ? ScionAS.State.HEALTHY : ScionAS.State.UNHEALTHY;
+        }
+    }
+
+    Logger.LogThread createLogThread(String logPath, Pattern readyPattern) {
+        storage.prepareFile(logPath);
+        return Logger.createLogThread(getTag(),
+                componentRegistry.getUncaughtExceptionHandler(),
+                storage.getEmptyInputStream(logPath))
+                .watchFor(readyPattern, this::setReady);
+    }
+
+    synchronized void stateHasChanged() {
+        synchronized (dependencyLock) {
+            dependencyLock.notifyAll();
+        }
+        ComponentRegistry componentRegistry = this.componentRegistry;
+        if (componentRegistry != null && doneWaiting && !mayRun() && !componentRegistry.isRestarting(getDependencies()))
+            stop();
+    }
+
+    void start() {
+        if (startThread())
+            notifyStateChange();
+    }
+
+    // Returns whether a new thread was started for this component.
+    private synchronized boolean startThread() {
+        if (threadRef.get() != null)
+            return false;
+
+        if (componentRegistry == null) {
+            logger().i("not registered with any component registry");
+            return false;
+        }
+
+        logger().i("starting component");
+        // a component may be started again after it has stopped (see ComponentRegistry.restart)
+        isReady = false;
+        doneWaiting = false;
+        storage = componentRegistry.getStorage();
+        String binaryPath = componentRegistry.getBinaryPath();
+        if (binaryPath == null)
+            throw new RuntimeException("no binary path given");
+        process = Process.from(binaryPath, getTag(), storage,
+                componentRegistry.getUncaughtExceptionHandler())
+                .setRuntimeProfile(componentRegistry.getRuntimeProfile(), isDataPlane())
+                .setSchedulingPolicy(getSchedulingPolicy());
+        if (!prepare()) {
+            logger().e("failed to prepare component");
+            return false;
+        }
+
+        Thread thread = new Thread(() -> {
+            ReadinessProber readinessProber = null;
+            try {
+                // woken up as soon as a dependency changes its state, polls in case a change is missed
+                boolean hasWaited = false;
+                long timeout = (long) Config.Component.READY_INTERVAL * Config.Component.READY_RETRIES;
+                long deadline = System.currentTimeMillis() + timeout;
+                synchronized (dependencyLock) {
+                    for (long remaining = timeout; !mayRun() && remaining > 0;
+                         remaining = deadline - System.currentTimeMillis()) {
+                        if (!hasWaited)
+                            logger().i("waiting until component may run");
+                        hasWaited = true;
+                        dependencyLock.wait(Math.min(remaining, Config.Component.READY_INTERVAL));
+                    }
+                }
+                if (hasWaited)
+                    logger().i("done waiting for component");
+                doneWaiting = true;
+                if (mayRun()) {
+                    readinessProber = ReadinessProber.start(this, readinessProbes());
+                    run();
+                }
+            } catch (InterruptedException ignored) {
+            } finally {
+                if (readinessProber != null)
+                    readinessProber.cancel();
+                logger().i("component has stopped");
+                threadRef.set(null);
+                notifyStateChange();
+            }
+        });
+        thread.setUncaughtExceptionHandler(componentRegistry.getUncaughtExceptionHandler());
+        thread.start();
+        threadRef.set(thread);
+        return true;
+    }
+
+    synchronized void stop() {
+        Thread thread = threadRef.get();
+        if (thread == null)
+            return;
+
+        logger().i("stopping component");
+        thread.interrupt();
+    }
+
+    // Blocks until the component's thread has exited (or the timeout has passed).
+    void join(long timeout) throws InterruptedException {
+        Thread thread = threadRef.get();
+        if (thread != null)
+            thread.join(timeout);
+    }
+
+    // Returns another component of the registry, or null if it (or this component) is not registered.
+    <T extends Component> T getComponent(Class<T> cls) {
+        ComponentRegistry componentRegistry = this.componentRegistry;
+        return componentRegistry == null ? null : componentRegistry.get(cls);
+    }
+
+    // Components are registered (and depended on) by this class, see VPNClient.
+    Class<? extends Component> getComponentClass() {
+        return getClass();
+    }
+
+    String getTag() {
+        return getComponentClass().getSimpleName();
+    }
+
+    // Override this to implement initialization procedures for a SCION component
+    // (such as preparing database files). This is run in the main thread and
+    // as such, will not be interrupted. This will be called right before mayRun().
+    // Overrides should call super.prepare() to write the configuration file.
+    boolean prepare() {
+        String configPath = getConfigPath();
+        if (configPath != null)
+            storage.writeFile(configPath, config = renderConfig());
+        return true;
+    }
+
+    // Override this (and renderConfig) for components that read a configuration file.
+    String getConfigPath() {
+        return null;
+    }
+
+    // Override this to render the configuration file, usually from getConfigTemplate.
+    String renderConfig() {
+        return null;
+    }
+
+    // Returns the given template with the values of the current power profile already set.
+    ConfigTemplate getConfigTemplate(String templatePath) {
+        ComponentRegistry componentRegistry = this.componentRegistry;
+        PowerProfile powerProfile = componentRegistry == null
+                ? Config.Power.DEFAULT_PROFILE : componentRegistry.getPowerProfile();
+        return ConfigTemplate.from(storage, templatePath).setAll(powerProfile.getConfigValues());
+    }
+
+    // Whether the component runs with another configuration than it would be started with now
+    // (e.g., after the power profile changed), so it has to be restarted to apply it.
+    boolean isConfigOutdated() {
+        String config = this.config;
+        return config != null && getState() != State.STOPPED && !config.equals(renderConfig());
+    }
+
+    // Called before/while run() to make sure this component may actually be running.
+    private boolean mayRun() {
+        ComponentRegistry componentRegistry = this.componentRegistry;
+        if (componentRegistry == null)
+            return false;
+        return componentRegistry.isReady(getDependencies());
+    }
+
+    Class[] getDependencies() {
+        return Stream.concat(Stream.of(dependsOn()), Stream.of(dependsOnUnderlay())).toArray(Class[]::new);
+    }
+
+    // Override this for components the AS works without (e.g., for observability only),
+    // they do not count towards the state of the AS (see ScionAS.getState).
+    boolean isAuxiliary() {
+        return false;
+    }
+
+    // Override this for components that forward packets, their process gets more cores (see RuntimeProfile).
+    boolean isDataPlane() {
+        return false;
+    }
+
+    // Override this to run the component's process with another priority or on other cores.
+    SchedulingPolicy getSchedulingPolicy() {
+        return null;
+    }
+
+    // Override this to define which other components are required locally (e.g., the dispatcher's
+    // socket). Components that only need these run in parallel to establishing the VPN.
+    Class[] dependsOn() {
+        return new Class[]{};
+    }
+
+    // Override this to define which other components provide the network underlay (i.e., the VPN
+    // client) for components that bind to it. Like dependsOn(), these gate run(), but prepare()
+    // still does all local work (databases, configuration files) while the VPN is connecting.
+    Class[] dependsOnUnderlay() {
+        return new Class[]{};
+    }
+
+    // Override this to check readiness other than by log patterns, see ReadinessProbe.
+    // Probing starts right before run() and ends when any probe succeeds.
+    ReadinessProbe[] readinessProbes() {
+        return new ReadinessProbe[]{};
+    }
+
+    // Rverride this to run the actual (long-running) SCION process - everything
+    // implemented here should be interruptible (i.e., handles InterruptedException)
+    // so we can stop the process any time. This will be called right after mayRun().
+    abstract void run();
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Acts as a central registry for all SCION components (daemon, dispatcher etc.)
+ * For each component, exactly one instance may be registered (see Scion).
+ */
+class ComponentRegistry {
+    private String binaryPath;
+    private Platform platform;
+    private Storage storage;
+    private Consumer<Map<String, ScionAS.State>> stateCallback;
+    private ConcurrentHashMap<Class<? extends Component>, Component> components = new ConcurrentHashMap<>();
+    private final Metrics metrics = Metrics.getInstance();
+    private final Set<Class> restarting = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> logLevelEndpoints = MetricsScraper.getComponentEndpoints();
+    private volatile RuntimeProfile runtimeProfile = Config.GoRuntime.DEFAULT_PROFILE;
+    private volatile PowerProfile powerProfile = Config.Power.DEFAULT_PROFILE;
+    private volatile Logger.LogLevel processLogLevel; // null: keep the level from the configuration files
+    private volatile boolean isUnhealthy; // raises the process log level to Config.Logger.UNHEALTHY_LOG_LEVEL
+
+    ComponentRegistry(Platform platform, Storage storage, Consumer<Map<String, ScionAS.State>> stateCallback) {
+        this.platform = platform;
+        this.storage = storage;
+        this.stateCallback = stateCallback;
+    }
+
+    Thread.UncaughtExceptionHandler getUncaughtExceptionHandler() {
+        return platform.getUncaughtExceptionHandler();
+    }
+
+    Storage getStorage() {
+        return storage;
+    }
+
+    ComponentRegistry setBinaryPath(String binaryPath) {
+        this.binaryPath = binaryPath;
+        return this;
+    }
+
+    String getBinaryPath() {
+        return binaryPath;
+    }
+
+    // The runtime profile applies to processes started afterwards.
+    void setRuntimeProfile(RuntimeProfile runtimeProfile) {
+        this.runtimeProfile = runtimeProfile;
+    }
+
+    RuntimeProfile getRuntimeProfile() {
+        return runtimeProfile;
+    }
+
+    // The power profile applies to configuration files rendered afterwards, see getOutdatedComponents.
+    void setPowerProfile(PowerProfile powerProfile) {
+        this.powerProfile = powerProfile;
+    }
+
+    PowerProfile getPowerProfile() {
+        return powerProfile;
+    }
+
+    // Returns the classes of all running components whose configuration file has changed since they started,
+    // in dependency order (dependencies first), as expected by restart().
+    Class[] getOutdatedComponents() {
+        return components.entrySet().stream()
+                .filter(e -> e.getValue().isConfigOutdated())
+                .map(Map.Entry::getKey)
+                .sorted(Comparator.comparingInt(this::getDependencyDepth))
+                .toArray(Class[]::new);
+    }
+
+    // Returns the length of the longest chain of components the given component depends on.
+    private int getDependencyDepth(Class cls) {
+        Component component = components.get(cls);
+        if (component == null)
+            return 0;
+        int depth = 0;
+        for (Class dependency : component.getDependencies())
+            depth = Math.max(depth, getDependencyDepth(dependency) + 1);
+        return depth;
+    }
+
+    Metrics getMetrics() {
+        return metrics;
+    }
+
+    void notifyReady(Component component) {
+        metrics.getComponentMetrics(component.getTag()).ready();
+        applyProcessLogLevel(component);
+    }
+
+    // Changes the log level inside the SCION processes. It is only applied to ready components,
+    // as their log output is watched for a ready line until then.
+    void setProcessLogLevel(Logger.LogLevel processLogLevel) {
+        this.processLogLevel = processLogLevel;
+        applyProcessLogLevel();
+    }
+
+    // Raises the log level inside the SCION processes while the AS is unhealthy, so the lines that
+    // explain why are kept even if no one views the log, and drops it again after recovery.
+    synchronized void setUnhealthy(boolean isUnhealthy) {
+        if (this.isUnhealthy == isUnhealthy)
+            return;
+        this.isUnhealthy = isUnhealthy;
+        Logger.LogLevel processLogLevel = getProcessLogLevel();
+        if (processLogLevel != null && hasComponentsWithState(Component.State.READY))
+            Logger.i("%s, setting log level of SCION processes to %s", isUnhealthy ? "AS is unhealthy" : "AS has recovered",
+                    ProcessLogLevel.toProcessLogLevel(processLogLevel));
+        applyProcessLogLevel();
+    }
+
+    private Logger.LogLevel getProcessLogLevel() {
+        Logger.LogLevel processLogLevel = this.processLogLevel;
+        if (processLogLevel != null && isUnhealthy && processLogLevel.getValue() > Config.Logger.UNHEALTHY_LOG_LEVEL.getValue())
+            return Config.Logger.UNHEALTHY_LOG_LEVEL;
+        return processLogLevel;
+    }
+
+    private void applyProcessLogLevel() {
+        components.values().stream()
+                .filter(component -> component.getState() == Component.State.READY)
+                .forEach(this::applyProcessLogLevel);
+    }
+
+    private void applyProcessLogLevel(Component component) {
+        Logger.LogLevel processLogLevel = getProcessLogLevel();
+        String address = logLevelEndpoints.get(component.getTag());
+        if (processLogLevel != null && address != null)
+            ProcessLogLevel.set(component.getTag(), address, processLogLevel);
+    }
+
+    void notifyStateChange() {
+        synchronized (restarting) {
+            restarting.notifyAll();
+        }
+        components.values().forEach(Component::stateHasChanged);
+        components.values().forEach(component ->
+                metrics.getComponentMetrics(component.getTag()).setState(component.getScionState()));
+        stateCallback.accept(components.entrySet().stream()
+                .collect(Collectors.toMap(
+                        e -> e.getKey().getSimpleName(),
+                        e -> e.getValue().getScionState())));
+    }
+
+    private void register(Component component) {
+        Class<? extends Component> cls = component.getComponentClass();
+        if (components.containsKey(cls))
+            throw new RuntimeException("SCION component for " + cls + " already registered");
+        components.put(cls, component);
+        component.setComponentRegistry(this);
+    }
+
+    private void unregister(Component component) {
+        Class<? extends Component> cls = component.getComponentClass();
+        if (get(cls) != component)
+            throw new RuntimeException("other SCION component registered for " + cls);
+        components.remove(cls);
+        component.setComponentRegistry(null);
+        metrics.getComponentMetrics(component.getTag()).setState(ScionAS.State.STOPPED);
+    }
+
+    ComponentRegistry start(Component component) {
+        register(component);
+        metrics.getComponentMetrics(component.getTag()).started();
+        component.start();
+        return this;
+    }
+
+    void stop(Component component) {
+        component.stop();
+        unregister(component);
+    }
+
+    boolean hasRegisteredComponents() {
+        return components.size() > 0;
+    }
+
+    // Auxiliary components are not considered, so they cannot hold the AS in any state.
+    boolean hasComponentsWithState(Component.State state) {
+        return components.values().stream()
+                .anyMatch(component -> !component.isAuxiliary() && component.getState() == state);
+    }
+
+    ComponentRegistry stopAll() {
+        components.values().forEach(this::stop);
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T extends Component> T get(Class<T> cls) {
+        return (T) components.get(cls);
+    }
+
+    private boolean isReady(Class<? extends Component> cls) {
+        return get(cls) != null && get(cls).getState() == Component.State.READY;
+    }
+
+    boolean isReady(Class... classes) {
+        return Stream.of(classes).allMatch(this::isReady);
+    }
+
+    private boolean isRegistered(Class... classes) {
+        return Stream.of(classes).allMatch(components::containsKey);
+    }
+
+    boolean isRestarting(Class... classes) {
+        return Stream.of(classes).anyMatch(restarting::contains);
+    }
+
+    // Stops the given components and starts them again in the given order. Components that
+    // depend on them are not stopped meanwhile. Blocks until all restarted components are
+    // ready again (or the restart timed out, or they were unregistered) and returns whether they are.
+    boolean restart(Class... classes) {
+        List<Class> _classes = Arrays.asList(classes);
+        restarting.addAll(_classes);
+        try {
+            for (int i = classes.length - 1; i >= 0; i--) {
+                Component component = components.get(classes[i]);
+                if (component != null) {
+                    component.stop();
+                    component.join(Config.Component.RESTART_TIMEOUT);
+                }
+            }
+            for (Class cls : classes) {
+                Component component = components.get(cls);
+                if (component != null)
+                    component.start();
+            }
+
+            long deadline = System.currentTimeMillis() + Config.Component.RESTART_TIMEOUT;
+            synchronized (restarting) {
+                for (long remaining = Config.Component.RESTART_TIMEOUT;
+                     !isReady(classes) && isRegistered(classes) && remaining > 0;
+                     remaining = deadline - System.currentTimeMillis())
+                    restarting.wait(remaining);
+            }
+            return isReady(classes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            restarting.removeAll(_classes);
+            notifyStateChange();
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.util.regex.Pattern;
+
+import static org.scionlab.scion.as.Logger.*;
+
+public class Config {
+    public static final String SCION_VERSION = "v2020.12-386-gfc081beb";
+    static class Process {
+        static final String WORKING_DIRECTORY_PATH = "EXTERNAL/workdir"; // working directory of SCION processes
+        static final String CONFIG_FLAG = "--config"; // flag that specifies a configuration file
+        static final String DISPATCHER_SOCKET_ENV = "DISPATCHER_SOCKET"; // environment variable that specifies the dispatcher socket
+        static final Pattern PID_PATTERN = Pattern.compile("pid=(\\d+)"); // extracts the process ID from java.lang.Process#toString()
+        static final String LAUNCHER_SHELL = "sh"; // shell that applies a scheduling policy before running the SCION binary
+        static final String LAUNCHER_SCRIPT = "[ -n \"$1\" ] && taskset -pc \"$1\" $$ >/dev/null 2>&1; " +
+                "[ \"$2\" -ne 0 ] && renice -n \"$2\" -p $$ >/dev/null 2>&1; shift 2; exec \"$@\""; // sets CPU affinity and nice value (if possible) of the shell, which then becomes the SCION binary
+        static final String CPU_DIRECTORY_PATH = "/sys/devices/system/cpu"; // contains a directory for each core
+        static final Pattern CPU_PATTERN = Pattern.compile("^cpu(\\d+)$"); // extracts the number of a core from its directory
+        static final String CPU_MAX_FREQUENCY_PATH = "cpufreq/cpuinfo_max_freq"; // maximum frequency (in kHz) of a core, relative to its directory
+    }
+
+    static class Component {
+        static final int READY_INTERVAL = 250; // how frequently (in ms) to check whether required components are ready
+        static final int READY_RETRIES = 120; // when to give up and stop the component
+        static final long RESTART_TIMEOUT = 60000; // how long (in ms) to wait for restarted components to be ready again
+    }
+
+    public static class GoRuntime {
+        public static final RuntimeProfile DEFAULT_PROFILE = RuntimeProfile.BALANCED; // runtime profile if none is chosen
+        static final String MAX_PROCS_ENV = "GOMAXPROCS"; // environment variable that limits the threads executing Go code
+        static final String GC_PERCENT_ENV = "GOGC"; // environment variable that sets the heap growth (in percent) that triggers a GC
+        static final String MEMORY_LIMIT_ENV = "GOMEMLIMIT"; // environment variable that sets a soft memory limit (Go 1.19 and newer)
+        static final double CONTROL_PLANE_CPU_SHARE = 0.5; // share of the data plane's cores used by control plane components
+        static final long MIN_MEMORY_LIMIT = 32L * 1024 * 1024; // smallest memory limit (in bytes) of a process
+        static final String PROC_MEMINFO_PATH = "/proc/meminfo"; // memory statistics of the system
+        static final String MEM_AVAILABLE_FIELD = "MemAvailable:"; // memory (in kB) available for new processes in /proc/meminfo
+    }
+
+    public static class Power {
+        public static final PowerProfile DEFAULT_PROFILE = PowerProfile.BALANCED; // power profile if none is chosen or detected
+        static final int LOW_BATTERY_LEVEL = 20; // battery level (in percent) at or below which the battery saver profile is chosen
+        public static final long SWITCH_DELAY = 30000; // how long (in ms) the battery state must be stable before switching profiles
+    }
+
+    static class ConfigTemplate {
+        static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{\\{\\s*(\\w+)\\s*}}"); // matches placeholders like {{name}}
+    }
+
+    static class ReadinessProbe {
+        static final long INITIAL_INTERVAL = 50; // how long (in ms) to wait before probing a starting component for the first time
+        static final long MAX_INTERVAL = 2000; // longest interval (in ms) between two probes, intervals double until then
+        static final int TIMEOUT = 250; // connect and read timeout (in ms) for a single probe
+    }
+
+    public static class Logger {
+        public static final LogLevel DEFAULT_LOG_LEVEL = LogLevel.INFO; // default log level on startup
+        static final LogLevel DEFAULT_LINE_LOG_LEVEL = LogLevel.INFO; // log level for lines that do not match
+        static final String TRACE_PREFIX = "[TRACE] [DBUG] "; // prefix for lines with the trace log level
+        static final String DEBUG_PREFIX = "[DEBUG] "; // prefix for lines with the debug log level
+        static final String INFO_PREFIX = "[INFO] "; // prefix for lines with the info log level
+        static final String WARN_PREFIX = "[WARN] "; // prefix for lines with the warn log level
+        static final String ERROR_PREFIX = "[EROR] "; // prefix for lines with the error log level
+        static final String CRIT_PREFIX = "[CRIT] "; // prefix for lines with the crit log level
+        static final String SKIP_LINE_PREFIX = "> "; // skip setting the message log level for lines starting with this prefix
+        static final Pattern DELETE_PATTERN = Pattern.compile("^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\.\\d{6}\\+\\d{4} "); // trims information from log output
+        static final long UPDATE_INTERVAL = 1000; // how often (in ms) to poll the log file for updates
+        public static final LogLevel BACKGROUND_LOG_LEVEL = LogLevel.WARN; // log level of SCION processes while no one views the log
+        static final LogLevel UNHEALTHY_LOG_LEVEL = LogLevel.INFO; // log level of SCION processes (at least) while the AS is unhealthy or a component has stopped
+        static final String PROCESS_LOG_LEVEL_PATH = "/log/level"; // HTTP path (next to the Prometheus endpoint) that changes a process's log level
+        static final int PROCESS_LOG_LEVEL_TIMEOUT = 1000; // connect and read timeout (in ms) for changing a process's log level
+        public static final String LOG_STORE_FILE = "log"; // file in the cache directory that stores all log lines
+        public static final int VIEW_PAGE_LINES = 500; // number of older lines the log view loads at once
+        public static final int VIEW_PREFETCH_LINES = 50; // load older lines when scrolled this close to the top
+        public static final int VIEW_MAX_LINES = 100000; // maximum number of lines held by the log view (older ones can be loaded again)
+    }
+
+    static class BorderRouter {
+        static final String BINARY_FLAG = "border"; // value of binary's first argument to run the border router
+        static final String CONFIG_TEMPLATE_PATH = "border_router.toml"; // path to configuration file template, located in assets folder
+        static final String CONFIG_PATH = "EXTERNAL/config/border_router.toml"; // path to configuration file
+        static final String LOG_LEVEL = "info"; // log level passed to process (log messages are later filtered by the Logger.Tree class)
+        static final Pattern READY_PATTERN = Pattern.compile("^.*Service started SCION Router.*$"); // when encountered, consider component ready
+        static final String METRICS_ADDRESS = "127.0.0.1:31445"; // address of the Prometheus endpoint (see template)
+        static final SchedulingPolicy SCHEDULING_POLICY = new SchedulingPolicy(0, SchedulingPolicy.Cores.BIG); // forwards packets, so it runs on big cores at the app's priority
+        static final Pattern VPN_NOT_READY_PATTERN = Pattern.compile("^.*bind: cannot assign requested address.*$"); // occurs when VPN connection is not ready
+    }
+
+    static class ControlServer {
+        static final String BINARY_FLAG = "cs"; // value of binary's first argument to run the control server
+        static final String CONFIG_TEMPLATE_PATH = "control_server.toml"; // path to configuration file template, located in assets folder
+        static final String CONFIG_PATH = "EXTERNAL/config/control_server.toml"; // path to configuration file
+        static final String TRUST_DATABASE_PATH = "EXTERNAL/databases/control_server.trust.db"; // path to trust SQLite database created in external storage
+        static final String PATH_DATABASE_PATH = "EXTERNAL/databases/control_server.path.db"; // path to path SQLite database created in external storage
+        static final String BEACON_DATABASE_PATH = "EXTERNAL/databases/control_server.beacon.db"; // path to beacon SQLite database created in external storage
+        static final String LOG_LEVEL = "info"; // log level passed to process (log messages are later filtered by the Logger.Tree class)
+        static final String METRICS_ADDRESS = "127.0.0.1:30454"; // address of the Prometheus endpoint (see template)
+        static final String CONTROL_ADDRESS = "127.0.0.1:30254"; // TCP address of the control service (see topology template)
+        static final SchedulingPolicy SCHEDULING_POLICY = new SchedulingPolicy(10, SchedulingPolicy.Cores.LITTLE); // beaconing is not latency-sensitive
+        static final Pattern READY_PATTERN = Pattern.compile("^.*Started periodic tasks.*$"); // when encountered, consider component ready
+    }
+
+    static class Daemon {
+        static final String BINARY_FLAG = "sciond"; // value of binary's first argument to run the daemon
+        static final String CONFIG_TEMPLATE_PATH = "daemon.toml"; // path to configuration file template, located in assets folder
+        static final String CONFIG_PATH = "EXTERNAL/config/daemon.toml"; // path to configuration file
+        static final String TRUST_DATABASE_PATH = "EXTERNAL/databases/daemon.trust.db"; // path to trust SQLite database created in external storage
+        static final String PATH_DATABASE_PATH = "EXTERNAL/databases/daemon.path.db"; // path to path SQLite database created in external storage
+        static final String LOG_LEVEL = "info"; // log level passed to process (log messages are later filtered by the Logger.Tree class)
+        static final String METRICS_ADDRESS = "127.0.0.1:30455"; // address of the Prometheus endpoint (see template)
+        static final String API_ADDRESS = "127.0.0.1:30255"; // default address of the daemon API
+        static final SchedulingPolicy SCHEDULING_POLICY = new SchedulingPolicy(5, SchedulingPolicy.Cores.ALL); // answers path lookups, but does not forward packets
+        static final Pattern READY_PATTERN = Pattern.compile("^.*Service started SCION Daemon.*$"); // when encountered, consider component ready
+    }
+
+    public static class Dispatcher {
+        public static final String BINARY_FLAG = "dispatcher"; // value of binary's first argument to run the dispatcher
+        public static final String CONFIG_TEMPLATE_PATH = "dispatcher.toml"; // path to configuration file template, located in assets folder
+        public static final String CONFIG_PATH = "EXTERNAL/config/dispatcher.toml"; // path to configuration file
+        public static final String SOCKET_PATH = "INTERNAL/dispatcher.sock"; // path to socket
+        public static final String LOG_LEVEL = "info"; // log level passed to process (log messages are later filtered by the Logger.Tree class)
+        public static final String METRICS_ADDRESS = "127.0.0.1:30441"; // address of the Prometheus endpoint (see template)
+        static final SchedulingPolicy SCHEDULING_POLICY = new SchedulingPolicy(0, SchedulingPolicy.Cores.BIG); // relays local SCION traffic between applications and the border router, so it sits on the latency path
+        public static final Pattern READY_PATTERN = Pattern.compile("^.*Service started SCION Dispatcher.*$"); // when encountered, consider component ready
+    }
+
+    static class Scmp {
+        static final String BINARY_FLAG = "scion"; // value of binary's first argument to run the scmp tool
+        static final String ECHO_FLAG = "ping"; // value of scmp's first argument to run an echo request
+        static final String DISPATCHER_SOCKET_FLAG = "--dispatcher"; // flag that specifies the dispatcher socket
+        static final Pattern READY_PATTERN = Pattern.compile("^.*bytes from.*$"); // when encountered, consider component ready
+        static final Pattern REPLY_PATTERN = Pattern.compile("^.*bytes from .*scmp_seq=(\\d+) time=([0-9.]+)(ns|us|µs|ms|s)\\b.*$"); // extracts sequence number and RTT from an echo reply
+        static final double PHI_THRESHOLD = 8.0; // suspicion level of the failure detector above which the component is considered unhealthy
+        static final int PHI_SAMPLES = 100; // number of reply inter-arrival times used by the failure detector
+        static final double MIN_STANDARD_DEVIATION = 100; // lower bound (in ms) for the standard deviation of inter-arrival times
+        static final long HEALTH_CHECK_INTERVAL = 250; // how frequently (in ms) to re-evaluate the failure detector
+        static final long NOTIFY_INTERVAL = 2000; // how frequently (in ms) to notify about state (and thus, updated statistics)
+        static final String ADDRESS_SEPARATOR_REGEX = "[\\s;]+"; // separates multiple remote addresses given by the user
+        static final double QUORUM = 0.5; // fraction of probed destinations that must be available for the AS to be healthy
+        static final long PROBE_RESTART_INTERVAL = 5000; // how long (in ms) to wait before restarting an exited scmp process
+        static final long PING_INTERVAL = 1000; // interval (in ms) in which the scmp tool sends echo requests
+        static final SchedulingPolicy SCHEDULING_POLICY = new SchedulingPolicy(0, SchedulingPolicy.Cores.ALL); // keeps measured RTTs free of the tool's own scheduling delays
+        static final long MAX_RTT = 60000000; // largest RTT (in µs) that can be recorded, larger values are clamped
+        static final long RTT_SLOT_INTERVAL = 5000; // duration (in ms) of a single slot of the RTT recorder
+        static final int RTT_SLOTS = 60; // number of slots kept by the RTT recorder, i.e., the longest window is 5 minutes
+        static final long STATISTICS_WINDOW = 60000; // default window (in ms) for RTT and loss statistics
+    }
+
+    static class PathMonitor {
+        static final String BINARY_FLAG = "scion"; // value of binary's first argument to run the scion tool
+        static final String SHOWPATHS_FLAG = "showpaths"; // value of scion's first argument to list paths to a destination
+        static final String EXTENDED_FLAG = "--extended"; // flag that includes MTU and expiry of each path
+        static final String MAX_PATHS_FLAG = "--maxpaths"; // flag that specifies the maximum number of listed paths
+        static final String DAEMON_ADDRESS_FLAG = "--sciond"; // flag that specifies the daemon address
+        static final String DAEMON_ADDRESS = Daemon.API_ADDRESS; // address of the daemon API
+        static final String ECHO_FLAG = "ping"; // value of scion's first argument to send echo requests over a path
+        static final String SEQUENCE_FLAG = "--sequence"; // flag that pins echo requests to the path given as hop predicates
+        static final String COUNT_FLAG = "-c"; // flag that specifies the number of echo requests
+        static final String INTERVAL_FLAG = "--interval"; // flag that specifies the interval between echo requests
+        static final String DISPATCHER_SOCKET_FLAG = "--dispatcher"; // flag that specifies the dispatcher socket
+        static final int PROBE_COUNT = 3; // number of echo requests sent over every cached path per refresh
+        static final String PROBE_INTERVAL = "100ms"; // interval between echo requests sent over a path (as a Go duration)
+        static final int MAX_PATHS = 10; // maximum number of paths per destination
+        static final SchedulingPolicy SCHEDULING_POLICY = new SchedulingPolicy(10, SchedulingPolicy.Cores.LITTLE); // path lookups run in the background
+        static final long REFRESH_INTERVAL = 60000; // how frequently (in ms) to query paths for all destinations
+        static final long CACHE_TTL = 5 * 60000; // how long (in ms) paths are kept in the cache without being refreshed
+        static final Pattern PATH_PATTERN = Pattern.compile("^\\s*\\[\\s*(\\d+)\\]\\s*Hops:\\s*\\[([^\\]]*)\\]"); // extracts index and hops of a path
+        static final Pattern MTU_PATTERN = Pattern.compile("MTU:\\s*(\\d+)"); // extracts the MTU of a path
+        static final Pattern EXPIRY_PATTERN = Pattern.compile("Expires:\\s*(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2} [+-]\\d{4})"); // extracts the expiry of a path
+        static final String EXPIRY_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss Z"; // date format of a path's expiry
+        static final Pattern STATUS_PATTERN = Pattern.compile("Status:\\s*(\\w+)"); // extracts the status of a path
+        static final Pattern ISD_AS_PATTERN = Pattern.compile("\\d+-[0-9a-fA-F]+(?::[0-9a-fA-F]+)*"); // matches an ISD-AS in a hop list
+        static final Pattern INTERFACE_PATTERN = Pattern.compile("(\\d+)>(\\d+)"); // extracts egress and ingress interface of a link in a hop list
+    }
+
+    static class LogStore {
+        static final int PAGE_LINES = 64; // number of lines per page, the unit in which lines are read and indexed
+        static final int PAGE_CACHE_SIZE = 64; // number of recently read pages kept in memory
+        static final int WRITE_BUFFER_SIZE = 16 * 1024; // size of the buffer for appended lines
+        static final long MAX_FILE_SIZE = 32L * 1024 * 1024; // size (in bytes) of the log files, the oldest half is deleted when exceeded
+        static final int MAX_SCAN_PAGES = 1024; // maximum number of pages searched for matching lines at once
+    }
+
+    static class MetricsScraper {
+        static final String METRICS_PATH = "/metrics"; // HTTP path of the Prometheus endpoints
+        static final int TIMEOUT = 1000; // connect and read timeout (in ms) for a single scrape
+        static final long SCRAPE_INTERVAL = 10000; // how frequently (in ms) to scrape all endpoints
+        static final int INITIAL_BUFFER_SIZE = 64 * 1024; // initial size of the buffer that holds a response
+        static final int MAX_BUFFER_SIZE = 4 * 1024 * 1024; // largest response that will be parsed
+    }
+
+    static class MetricsServer {
+        static final String ADDRESS = "127.0.0.1"; // address of the app's own Prometheus endpoint
+        static final int PORT = 30480; // port of the app's own Prometheus endpoint
+        static final String METRICS_PATH = "/metrics"; // HTTP path of the app's own Prometheus endpoint
+        static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8"; // Prometheus text exposition format
+        static final int BACKLOG = 4; // maximum number of pending connections
+        static final int ACCEPT_TIMEOUT = 1000; // how frequently (in ms) to check whether the server was stopped
+        static final int TIMEOUT = 1000; // read timeout (in ms) for a single request
+    }
+
+    public static class ResourceSampler {
+        public static final String GROUP = "App"; // group of all sampled series in the time-series store
+        public static final String CPU_METRIC = "cpu_percent"; // CPU usage of a component's processes
+        public static final String RSS_METRIC = "rss_bytes"; // resident memory of a component's processes
+        public static final String MAX_PROCS_METRIC = "go_max_procs"; // GOMAXPROCS of a component's process (see RuntimeProfile)
+        public static final String MEMORY_LIMIT_METRIC = "go_memory_limit_bytes"; // GOMEMLIMIT of a component's process (see RuntimeProfile)
+        public static final String RTT_METRIC = "rtt_milliseconds"; // median echo RTT of a destination
+        public static final String LOSS_METRIC = "loss_ratio"; // echo loss of a destination
+        public static final String THROUGHPUT_METRIC = "router_throughput_bytes_per_second"; // border router throughput
+        static final String ROUTER_INPUT_BYTES_METRIC = "router_input_bytes_total"; // border router counter of received bytes
+        static final String ROUTER_OUTPUT_BYTES_METRIC = "router_output_bytes_total"; // border router counter of sent bytes
+        static final String PROC_STAT_PATH = "/proc/%d/stat"; // CPU times of a process
+        static final String PROC_STATUS_PATH = "/proc/%d/status"; // status (including memory usage) of a process
+        static final int UTIME_FIELD = 11; // index of utime in /proc/<pid>/stat, counted after the command name
+        static final int STIME_FIELD = 12; // index of stime in /proc/<pid>/stat, counted after the command name
+        static final String RSS_FIELD = "VmRSS:"; // resident set size (in kB) in /proc/<pid>/status
+        static final long CLOCK_TICKS_PER_SECOND = 100; // unit of CPU times in /proc (USER_HZ, fixed by the Linux ABI)
+    }
+
+    static class TimeSeriesStore {
+        static final int MAX_SERIES = 1024; // maximum number of series, samples for further series are dropped
+        static final int RAW_CAPACITY = 180; // number of raw samples per series (30 minutes at the scrape interval)
+        static final int MINUTE_CAPACITY = 180; // number of 1 minute aggregates per series (3 hours)
+        static final int TEN_MINUTES_CAPACITY = 144; // number of 10 minute aggregates per series (24 hours)
+    }
+
+    public static class SensorFetcher {
+        public static final String BINARY_FLAG = "sensorfetcher"; // value of binary's first argument to run the sensorfetcher tool
+        public static final String SERVER_FLAG = "-scion-android_s"; // flag that specifies the remote address
+        public static final String DISPATCHER_SOCKET_ENV = "SCION_DISPATCHER_SOCKET"; // flag that specifies the dispatcher socket
+        public static final String TAG = "SensorFetcher"; // tag of the sensorfetcher tool's log lines
+        public static final String DEFAULT_SERVER = "17-ffaa:0:1102,[192.33.93.177]:42003"; // sensor servers queried by default (separated by spaces)
+        public static final long DEFAULT_INTERVAL = 60000; // how often (in ms) to fetch sensor readings by default
+        public static final long MIN_INTERVAL = 5000; // minimum time (in ms) between two fetches
+        static final String SERVER_SEPARATOR_REGEX = "\\s+"; // separates the addresses of several sensor servers
+        static final int MAX_CONCURRENT_FETCHES = 4; // number of servers that are queried at the same time
+        static final long WORKER_KEEP_ALIVE = 30000; // how long (in ms) idle fetch workers are kept around
+        static final long CACHE_TTL = 30000; // how long (in ms) a fetched result is used instead of fetching again
+        static final String TIMESTAMP_FORMAT = "yyyy/MM/dd HH:mm:ss"; // format of the line that precedes the readings of a sample
+        static final String TIMESTAMP_TIME_ZONE = "UTC"; // time zone of the sample timestamp
+        static final String READING_SEPARATOR = ": "; // separates metric name and value of a reading, e.g., "CO2: 398"
+    }
+
+    public static class Scion {
+        public static final String SCIONLAB_BINARY_PATH = "libscion-scionlab.so"; // file name of SCION's scionlab binary in jniLibs (shipped and used by default)
+        public static final String VERSION_FLAG = "version"; // flag to obtain version information
+        public static final long HANDOVER_DELAY = 2000; // how long (in ms) the underlying network must be stable before restarting underlay components
+        public static final String CONFIG_DIRECTORY_PATH = "EXTERNAL/config"; // path to config directory where all configuration files are stored
+        public static final String TMP_DIRECTORY_PATH = "EXTERNAL/tmp"; // path to temporary directory used for extracting SCIONLab configuration
+        public static final String TMP_GEN_DIRECTORY_PATH = TMP_DIRECTORY_PATH + "/etc/scion"; // path to gen directory extracted from configuration
+        public static final String TMP_VPN_DIRECTORY_PATH = TMP_DIRECTORY_PATH + "/etc/openvpn"; // path to vpn config directory extracted from configuration
+        public static final String TMP_VPN_CONFIG_PATH_REGEX = "^client.*\\.conf$"; // regex for OpenVPN configuration extracted from configuration
+        public static final String GEN_DIRECTORY_PATH = "EXTERNAL/gen"; // path to gen directory created in external storage
+        public static final String CERTS_DIRECTORY_PATH = CONFIG_DIRECTORY_PATH + "/certs"; // path to certs directory created in external storage
+        public static final String KEYS_DIRECTORY_PATH = CONFIG_DIRECTORY_PATH + "/keys"; // path to keys directory created in external storage
+        public static final String CRYPTO_DIRECTORY_PATH = CONFIG_DIRECTORY_PATH + "/crypto"; // path to crypto directory created in external storage
+        public static final String TOPOLOGY_PATH = CONFIG_DIRECTORY_PATH + "/topology.json"; // path to topology file created in external storage
+        public static final String TOPOLOGY_TEMPLATE_PATH = "topology.json"; // path to topology file template, located in assets folder
+        public static final int GEN_DIRECTORY_FILE_LIMIT = 100; // number of files allowed in imported directory (failsafe if the user chooses wrong)
+        public static final String CERTS_DIRECTORY_PATH_REGEX = "^certs$"; // regex for the certs directory
+        public static final String KEYS_DIRECTORY_PATH_REGEX = "^keys$"; // regex for the keys directory
+        public static final String CRYPTO_DIRECTORY_PATH_REGEX = "^crypto$"; // regex for crypto directory
+        public static final String TOPOLOGY_PATH_REGEX = "^topology\\.json$"; // regex for the topology file
+        public static final String BORDER_ROUTERS_JSON_PATH = "border_routers"; // JSON path for border routers object in topology file
+        public static final String INTERFACES_JSON_PATH = "interfaces"; // JSON path for interfaces object in topology file
+        public static final String IA_JSON_PATH = "isd_as"; // JSON path for IA string in topology file
+        public static final String UNDERLAY_JSON_PATH = "underlay"; // JSON path for underlay object in topology file
+        public static final String REMOTE_UNDERLAY_JSON_PATH = "remote"; // JSON path for public overlay object in topology file
+        public static final String PUBLIC_UNDERLAY_JSON_PATH = "public"; // JSON path for public overlay object in topology file
+        public static final String LOCAL_UNDERLAY_JSON_PATH = "local"; // JSON path for public overlay object in newer topology files
+        public static final String LINK_TO_JSON_PATH = "link_to"; // JSON path for link type of an interface in topology file
+        public static final String MTU_JSON_PATH = "mtu"; // JSON path for MTU of the AS or an interface in topology file
+        public static final String BANDWIDTH_JSON_PATH = "bandwidth"; // JSON path for bandwidth of an interface in topology file
+        public static final String DEFAULT_LINK_TO = "PARENT"; // link type for interfaces that do not specify one (SCIONLab user ASes attach to a parent)
+        public static final int DEFAULT_MTU = 1472; // MTU for topologies and interfaces that do not specify one
+        public static final int DEFAULT_BANDWIDTH = 1000; // bandwidth for interfaces that do not specify one
+    }
+
+    public static class VPNClient {
+        public static final String PACKAGE_NAME = "de.blinkt.openvpn"; // package name of OpenVPN application
+        static final String NOPROCESS_STATE = "NOPROCESS"; // state of OpenVPN application when no process is running
+        static final String VPN_GENERATE_CONFIG = "VPN_GENERATE_CONFIG"; // state of OpenVPN application when VPN configuration is generated
+        static final String CONNECTED_STATE = "CONNECTED"; // OpenVPN connected state (see https://openvpn.net/community-resources/management-interface/)
+        static final String USERPAUSE_STATE = "USERPAUSE"; // state of OpenVPN application when paused by the user (or by us)
+        static final String NONETWORK_STATE = "NONETWORK"; // state of OpenVPN application when it paused itself for lack of network
+        static final String PROFILE_NAME = "SCIONLab"; // name of the OpenVPN profile added for the SCIONLab configuration
+        static final String PROFILE_PREFERENCES = "org.scionlab.scion.as.VPNClient"; // preferences that map configuration hashes to profile UUIDs
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.scionlab.scion.as.Config.ConfigTemplate.*;
+
+/**
+ * Renders a configuration file template from the assets folder. Templates refer to values by
+ * name (e.g., {{log_level}}), so a value may be used any number of times or not at all.
+ */
+class ConfigTemplate {
+    private final String template;
+    private final Map<String, String> values = new HashMap<>();
+
+    private ConfigTemplate(String template) {
+        this.template = template;
+    }
+
+    static ConfigTemplate from(Storage storage, String templatePath) {
+        return new ConfigTemplate(storage.readAssetFile(templatePath));
+    }
+
+    ConfigTemplate set(String name, Object value) {
+        values.put(name, String.valueOf(value));
+        return this;
+    }
+
+    ConfigTemplate setAll(Map<String, String> values) {
+        this.values.putAll(values);
+        return this;
+    }
+
+    // Fails for placeholders without a value, as SCION would otherwise start with a broken configuration.
+    String render() {
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(template);
+        StringBuffer sb = new StringBuffer();
+        while (matcher.find()) {
+            String value = values.get(matcher.group(1));
+            if (value == null)
+                throw new RuntimeException("no value for " + matcher.group(1) + " in configuration template");
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+}
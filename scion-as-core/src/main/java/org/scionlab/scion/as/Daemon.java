@@ -25,19 +25,40 @@ import static org.scionlab.scion.as.Config.Daemon.*;
 class Daemon extends Component {
     @Override
     Class[] dependsOn() {
-        return new Class[]{Dispatcher.class, VPNClient.class};
+        return new Class[]{Dispatcher.class};
     }
 
     @Override
     boolean prepare() {
         storage.prepareFiles(TRUST_DATABASE_PATH, PATH_DATABASE_PATH);
-        storage.writeFile(CONFIG_PATH, String.format(
-                storage.readAssetFile(CONFIG_TEMPLATE_PATH),
-                storage.getAbsolutePath(Config.Scion.CONFIG_DIRECTORY_PATH),
-                LOG_LEVEL,
-                storage.getAbsolutePath(TRUST_DATABASE_PATH),
-                storage.getAbsolutePath(PATH_DATABASE_PATH)));
-        return true;
+        return super.prepare();
+    }
+
+    @Override
+    String getConfigPath() {
+        return CONFIG_PATH;
+    }
+
+    @Override
+    String renderConfig() {
+        return getConfigTemplate(CONFIG_TEMPLATE_PATH)
+                .set("config_dir", storage.getAbsolutePath(Config.Scion.CONFIG_DIRECTORY_PATH))
+                .set("log_level", LOG_LEVEL)
+                .set("trust_db", storage.getAbsolutePath(TRUST_DATABASE_PATH))
+                .set("path_db", storage.getAbsolutePath(PATH_DATABASE_PATH))
+                .render();
+    }
+
+    @Override
+    SchedulingPolicy getSchedulingPolicy() {
+        return SCHEDULING_POLICY;
+    }
+
+    @Override
+    ReadinessProbe[] readinessProbes() {
+        return new ReadinessProbe[]{
+                ReadinessProbe.tcp(API_ADDRESS),
+                ReadinessProbe.metrics(METRICS_ADDRESS)};
     }
 
     @Override
@@ -26,13 +26,39 @@ class Dispatcher extends Component {
     @Override
     boolean prepare() {
         storage.prepareFile(SOCKET_PATH);
-        storage.writeFile(CONFIG_PATH, String.format(
-                storage.readAssetFile(CONFIG_TEMPLATE_PATH),
-                storage.getAbsolutePath(SOCKET_PATH),
-                LOG_LEVEL));
+        return super.prepare();
+    }
+
+    @Override
+    String getConfigPath() {
+        return CONFIG_PATH;
+    }
+
+    @Override
+    String renderConfig() {
+        return getConfigTemplate(CONFIG_TEMPLATE_PATH)
+                .set("application_socket", storage.getAbsolutePath(SOCKET_PATH))
+                .set("log_level", LOG_LEVEL)
+                .render();
+    }
+
+    @Override
+    boolean isDataPlane() {
         return true;
     }
 
+    @Override
+    SchedulingPolicy getSchedulingPolicy() {
+        return SCHEDULING_POLICY;
+    }
+
+    @Override
+    ReadinessProbe[] readinessProbes() {
+        return new ReadinessProbe[]{
+                ReadinessProbe.unixSocket(storage, SOCKET_PATH),
+                ReadinessProbe.metrics(METRICS_ADDRESS)};
+    }
+
     @Override
     void run() {
         process.addArgument(BINARY_FLAG)
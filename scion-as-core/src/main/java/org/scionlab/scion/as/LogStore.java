@@ -0,0 +1,406 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.scionlab.scion.as.Config.LogStore.*;
+
+/**
+ * Append-only store for log lines that scales to millions of lines. Lines are written to a
+ * file in pages of PAGE_LINES lines. Only the file offset and a summary (which tags and levels
+ * occur) of every page are kept in memory, along with the page that is currently written and
+ * a few recently read pages. Thus, appending and reading a line take the same time regardless
+ * of how many lines are stored, and filtered views can skip pages without matching lines.
+ * The file is rotated at page boundaries once it reaches half of MAX_FILE_SIZE, deleting the
+ * oldest lines (see getFirstIndex). Complete pages are read under their own lock, so readers
+ * do not wait for the appending thread and vice versa.
+ */
+public class LogStore {
+    private static final int HEADER_SIZE = 7; // message length (int), level (byte), tag (short)
+    private static final Logger.LogLevel[] LEVELS = Logger.LogLevel.values();
+    private static final String PREVIOUS_FILE_SUFFIX = ".1";
+
+    private final File file, previousFile;
+    private FileChannel channel, previousChannel; // the previous file is null until the first rotation
+    private final byte[] writeBuffer = new byte[WRITE_BUFFER_SIZE];
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    private byte[] readBuffer = new byte[WRITE_BUFFER_SIZE];
+    private int writeBufferLength;
+    private long length; // of the current file, including the write buffer
+    private long previousLength;
+    private int firstPage, currentFirstPage; // oldest page, and first page in the current file
+    // indexed by page - firstPage, offsets are relative to the file the page is in
+    private long[] pageOffsets = new long[1024], pageTagMasks = new long[1024];
+    private int[] pageLevelMasks = new int[1024];
+    private volatile int size, firstIndex;
+    private final List<Line> currentPage = new ArrayList<>(PAGE_LINES);
+    private Line[] lastPage; // the most recently completed page
+    private final Object readLock = new Object(); // guards the page cache and the read buffer
+    private final Map<Integer, Line[]> pageCache = new LinkedHashMap<Integer, Line[]>(PAGE_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Line[]> eldest) {
+            return size() > PAGE_CACHE_SIZE;
+        }
+    };
+    private final List<String> tags = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> tagIndices = new HashMap<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    public static class Line {
+        private final int index, tagIndex;
+        private final String tag, message;
+        private final Logger.LogLevel level;
+
+        private Line(int index, int tagIndex, String tag, Logger.LogLevel level, String message) {
+            this.index = index;
+            this.tagIndex = tagIndex;
+            this.tag = tag;
+            this.level = level;
+            this.message = message;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public Logger.LogLevel getLevel() {
+            return level;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Selects lines by tag and level. Tags are identified by their index (see getTags()),
+     * all tags from the 64th on share a single bit.
+     */
+    public static class Filter {
+        public static final Filter ALL = new Filter(-1L, -1);
+        private final long tagMask;
+        private final int levelMask;
+
+        private Filter(long tagMask, int levelMask) {
+            this.tagMask = tagMask;
+            this.levelMask = levelMask;
+        }
+
+        private static long tagBit(int tagIndex) {
+            return 1L << Math.min(tagIndex, 63);
+        }
+
+        private static int levelBit(Logger.LogLevel level) {
+            return 1 << level.getValue();
+        }
+
+        public Filter withTag(int tagIndex, boolean isIncluded) {
+            return new Filter(isIncluded ? tagMask | tagBit(tagIndex) : tagMask & ~tagBit(tagIndex), levelMask);
+        }
+
+        public Filter withLevel(Logger.LogLevel level, boolean isIncluded) {
+            return new Filter(tagMask, isIncluded ? levelMask | levelBit(level) : levelMask & ~levelBit(level));
+        }
+
+        public boolean matches(Line line) {
+            return (tagMask & tagBit(line.tagIndex)) != 0 && (levelMask & levelBit(line.level)) != 0;
+        }
+
+        private boolean mayMatch(long tagMask, int levelMask) {
+            return (this.tagMask & tagMask) != 0 && (this.levelMask & levelMask) != 0;
+        }
+    }
+
+    // Indices of matching lines found by findBefore, nearest (i.e., newest) first.
+    public static class Matches {
+        private final int[] indices;
+        private int count, from;
+
+        public Matches(int capacity) {
+            indices = new int[capacity];
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int get(int i) {
+            return indices[i];
+        }
+
+        // all lines from this index on (up to the index passed to findBefore) have been searched
+        public int getFrom() {
+            return from;
+        }
+    }
+
+    // Creates an empty store backed by the given file (and a second one next to it for
+    // older lines), which is overwritten.
+    public LogStore(File file) throws IOException {
+        this.file = file;
+        previousFile = new File(file.getPath() + PREVIOUS_FILE_SUFFIX);
+        //noinspection ResultOfMethodCallIgnored
+        previousFile.delete();
+        channel = open(file);
+    }
+
+    private static FileChannel open(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.setLength(0);
+        return randomAccessFile.getChannel();
+    }
+
+    // Number of lines appended so far, including deleted ones.
+    public int size() {
+        return size;
+    }
+
+    // Index of the oldest line that is still stored, older lines have been deleted to bound the file size.
+    public int getFirstIndex() {
+        return firstIndex;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    // Listeners are notified after every appended line (on the appending thread).
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    private int getTagIndex(String tag) {
+        Integer tagIndex = tagIndices.get(tag);
+        if (tagIndex == null) {
+            tagIndex = tags.size();
+            tags.add(tag);
+            tagIndices.put(tag, tagIndex);
+        }
+        return tagIndex;
+    }
+
+    private void flush() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(writeBuffer, 0, writeBufferLength);
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        writeBufferLength = 0;
+    }
+
+    private void write(byte[] bytes, int length) throws IOException {
+        if (writeBufferLength + length > writeBuffer.length)
+            flush();
+        if (length > writeBuffer.length) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        } else {
+            System.arraycopy(bytes, 0, writeBuffer, writeBufferLength, length);
+            writeBufferLength += length;
+        }
+        this.length += length;
+    }
+
+    // Moves the current file aside (deleting the previous one) and continues in a new file from
+    // the given page on. If this fails, the current file just keeps growing.
+    private void rotate(int page) {
+        FileChannel previousChannel = this.previousChannel;
+        // not logged with Logger, as that would append to this store again
+        if (!file.renameTo(previousFile)) {
+            System.err.println("could not rotate log file " + file);
+            return;
+        }
+        try {
+            FileChannel channel = open(file);
+            if (previousChannel != null)
+                previousChannel.close();
+            this.previousChannel = this.channel;
+            this.channel = channel;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        previousLength = length;
+        length = 0;
+
+        int dropped = currentFirstPage - firstPage, kept = page - currentFirstPage;
+        System.arraycopy(pageOffsets, dropped, pageOffsets, 0, kept);
+        System.arraycopy(pageTagMasks, dropped, pageTagMasks, 0, kept);
+        System.arraycopy(pageLevelMasks, dropped, pageLevelMasks, 0, kept);
+        firstPage = currentFirstPage;
+        currentFirstPage = page;
+        firstIndex = firstPage * PAGE_LINES;
+    }
+
+    public void append(String tag, Logger.LogLevel level, String message) {
+        synchronized (this) {
+            int page = size / PAGE_LINES, tagIndex = getTagIndex(tag);
+            if (size % PAGE_LINES == 0) {
+                if (length >= MAX_FILE_SIZE / 2)
+                    rotate(page);
+                int slot = page - firstPage;
+                if (slot == pageOffsets.length) {
+                    pageOffsets = Arrays.copyOf(pageOffsets, slot * 2);
+                    pageTagMasks = Arrays.copyOf(pageTagMasks, slot * 2);
+                    pageLevelMasks = Arrays.copyOf(pageLevelMasks, slot * 2);
+                }
+                pageOffsets[slot] = length;
+                pageTagMasks[slot] = 0;
+                pageLevelMasks[slot] = 0;
+                currentPage.clear();
+            }
+
+            byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            header.clear();
+            header.putInt(bytes.length).put((byte) level.getValue()).putShort((short) tagIndex);
+            try {
+                write(header.array(), HEADER_SIZE);
+                write(bytes, bytes.length);
+            } catch (IOException e) {
+                // keep the line in memory at least, the page cannot be read back anyway
+                e.printStackTrace();
+            }
+            pageTagMasks[page - firstPage] |= Filter.tagBit(tagIndex);
+            pageLevelMasks[page - firstPage] |= Filter.levelBit(level);
+
+            currentPage.add(new Line(size, tagIndex, tags.get(tagIndex), level, message));
+            if (currentPage.size() == PAGE_LINES) {
+                lastPage = currentPage.toArray(new Line[0]);
+                // complete pages are read without holding this lock, so they must be in the file
+                try {
+                    flush();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            size++;
+        }
+        for (Runnable listener : listeners)
+            listener.run();
+    }
+
+    private Line[] readPage(int page, FileChannel channel, long start, long end) throws IOException {
+        int pageLength = (int) (end - start);
+        if (readBuffer.length < pageLength)
+            readBuffer = new byte[Math.max(pageLength, readBuffer.length * 2)];
+        ByteBuffer buffer = ByteBuffer.wrap(readBuffer, 0, pageLength);
+        while (buffer.hasRemaining())
+            if (channel.read(buffer, start + buffer.position()) < 0)
+                throw new IOException("unexpected end of log file");
+
+        Line[] lines = new Line[PAGE_LINES];
+        buffer.flip();
+        for (int i = 0; i < PAGE_LINES; i++) {
+            int messageLength = buffer.getInt();
+            Logger.LogLevel level = LEVELS[buffer.get()];
+            int tagIndex = buffer.getShort();
+            String message = new String(readBuffer, buffer.position(), messageLength, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + messageLength);
+            lines[i] = new Line(page * PAGE_LINES + i, tagIndex, tags.get(tagIndex), level, message);
+        }
+        return lines;
+    }
+
+    // Returns the line with the given index, or null if it has been deleted or cannot be read.
+    // The newest lines are kept in memory, older ones are read without blocking append().
+    public Line get(int index) {
+        int page = index / PAGE_LINES;
+        FileChannel pageChannel;
+        long start, end;
+        synchronized (this) {
+            if (index < firstIndex || index >= size)
+                return null;
+            if (page == size / PAGE_LINES)
+                return currentPage.get(index % PAGE_LINES);
+            if (page == size / PAGE_LINES - 1)
+                return lastPage[index % PAGE_LINES];
+            pageChannel = page < currentFirstPage ? previousChannel : channel;
+            start = pageOffsets[page - firstPage];
+            end = page + 1 == currentFirstPage ? previousLength : pageOffsets[page + 1 - firstPage];
+        }
+
+        synchronized (readLock) {
+            Line[] lines = pageCache.get(page);
+            if (lines == null) {
+                try {
+                    lines = readPage(page, pageChannel, start, end);
+                } catch (IOException | RuntimeException e) {
+                    // also happens if the page was deleted while reading it
+                    if (index >= firstIndex)
+                        e.printStackTrace();
+                    return null;
+                }
+                pageCache.put(page, lines);
+            }
+            return lines[index % PAGE_LINES];
+        }
+    }
+
+    // Searches for lines before the given index that match the filter, starting with the
+    // newest one, until the matches are full or MAX_SCAN_PAGES pages have been searched.
+    // Pages without any matching tag or level are skipped without reading them.
+    public void findBefore(int before, Filter filter, Matches matches) {
+        matches.count = 0;
+        matches.from = Math.max(firstIndex, Math.min(before, size));
+        int scannedPages = 0;
+        for (int page = (matches.from - 1) / PAGE_LINES; page >= 0 && matches.from > firstIndex &&
+                matches.count < matches.indices.length && scannedPages < MAX_SCAN_PAGES; page--, scannedPages++) {
+            boolean mayMatch;
+            synchronized (this) {
+                if (page < firstPage) {
+                    matches.from = firstIndex;
+                    break;
+                }
+                mayMatch = filter.mayMatch(pageTagMasks[page - firstPage], pageLevelMasks[page - firstPage]);
+            }
+            if (!mayMatch) {
+                matches.from = page * PAGE_LINES;
+                continue;
+            }
+            for (int index = matches.from - 1; index >= page * PAGE_LINES; index--) {
+                Line line = get(index);
+                matches.from = index;
+                if (line != null && filter.matches(line)) {
+                    matches.indices[matches.count++] = index;
+                    if (matches.count == matches.indices.length)
+                        break;
+                }
+            }
+        }
+    }
+}
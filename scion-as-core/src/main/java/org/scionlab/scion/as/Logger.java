@@ -0,0 +1,314 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.scionlab.scion.as.Config.Logger.*;
+
+/**
+ * Logs messages of the app and output of the SCION processes. Messages are passed to a single
+ * sink, which is set by the platform (e.g., to write them to Logcat and the log view). Without
+ * a sink, messages are dropped. Untagged messages are tagged with the name of the calling class.
+ */
+public class Logger {
+    // message priorities, same values as in android.util.Log so platforms can pass them through
+    public static final int VERBOSE = 2, DEBUG = 3, INFO = 4, WARN = 5, ERROR = 6, ASSERT = 7;
+
+    private static volatile Sink sink = (priority, tag, message, t) -> {
+    };
+
+    public interface Sink {
+        void log(int priority, String tag, String message, Throwable t);
+    }
+
+    public static class Tag {
+        private final String tag;
+
+        private Tag(String tag) {
+            this.tag = tag;
+        }
+
+        public void d(String message, Object... args) {
+            log(DEBUG, tag, null, message, args);
+        }
+
+        public void i(String message, Object... args) {
+            log(INFO, tag, null, message, args);
+        }
+
+        public void w(String message, Object... args) {
+            log(WARN, tag, null, message, args);
+        }
+
+        public void w(Throwable t, String message, Object... args) {
+            log(WARN, tag, t, message, args);
+        }
+
+        public void e(String message, Object... args) {
+            log(ERROR, tag, null, message, args);
+        }
+
+        public void e(Throwable t) {
+            log(ERROR, tag, t, null);
+        }
+
+        public void e(Throwable t, String message, Object... args) {
+            log(ERROR, tag, t, message, args);
+        }
+    }
+
+    static class LogThread extends Thread {
+        private Consumer<String> outputConsumer;
+        private HashMap<Pattern, Consumer<Matcher>> watchPatterns = new HashMap<>();
+        private Pattern deletePattern;
+        private long interval;
+        InputStream inputStream;
+
+        LogThread(Consumer<String> outputConsumer, Pattern deletePattern, long interval,
+                  Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
+            this.outputConsumer = outputConsumer;
+            this.deletePattern = deletePattern;
+            this.interval = interval;
+            if (uncaughtExceptionHandler != null)
+                setUncaughtExceptionHandler(uncaughtExceptionHandler);
+        }
+
+        LogThread setInputStream(InputStream inputStream) {
+            this.inputStream = inputStream;
+            return this;
+        }
+
+        LogThread watchFor(Pattern watchPattern, Runnable watchCallback) {
+            return watchFor(watchPattern, matcher -> watchCallback.run());
+        }
+
+        LogThread watchFor(Pattern watchPattern, Consumer<Matcher> watchCallback) {
+            this.watchPatterns.put(watchPattern, watchCallback);
+            return this;
+        }
+
+        @Override
+        public void run() {
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
+                //noinspection InfiniteLoopStatement
+                while (true) {
+                    readLines(br);
+                    Thread.sleep(interval);
+                }
+            } catch (InterruptedIOException | InterruptedException ignored) {
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        // Handles all lines that can be read until the end of the stream is reached.
+        void readLines(BufferedReader br) throws IOException {
+            for (String line = br.readLine(); line != null; line = br.readLine())
+                handleLine(line);
+        }
+
+        void handleLine(String line) {
+            String _line = deletePattern.matcher(line).replaceAll("");
+            watchPatterns.entrySet().forEach(e -> {
+                Matcher matcher = e.getKey().matcher(_line);
+                if (matcher.matches())
+                    e.getValue().accept(matcher);
+            });
+            outputConsumer.accept(_line);
+        }
+    }
+
+    public enum LogLevel {
+        TRACE(0, TRACE_PREFIX),
+        DEBUG(1, DEBUG_PREFIX),
+        INFO(2, INFO_PREFIX),
+        WARN(3, WARN_PREFIX),
+        ERROR(4, ERROR_PREFIX),
+        CRIT(5, CRIT_PREFIX);
+
+        private int value;
+        private String prefix;
+
+        LogLevel(int value, String prefix) {
+            this.value = value;
+            this.prefix = prefix;
+        }
+
+        public int getValue() {
+            return value;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+    }
+
+    public interface LineConsumer {
+        void accept(String tag, LogLevel level, String message);
+    }
+
+    // Filters messages by log level and passes the remaining ones to the output consumer and
+    // (if given) the platform sink, e.g., Logcat.
+    public static class Tree implements Sink {
+        private LineConsumer outputConsumer;
+        private Sink platformSink;
+        private LogLevel logLevel = DEFAULT_LOG_LEVEL;
+        private int messageLogLevel = DEFAULT_LINE_LOG_LEVEL.getValue();
+
+        public Tree(BiConsumer<String, String> outputConsumer) {
+            this((tag, level, message) -> outputConsumer.accept(tag, message));
+        }
+
+        public Tree(LineConsumer outputConsumer) {
+            this(outputConsumer, null);
+        }
+
+        public Tree(LineConsumer outputConsumer, Sink platformSink) {
+            this.outputConsumer = outputConsumer;
+            this.platformSink = platformSink;
+        }
+
+        // maps the priority of app messages to the log levels used by SCION
+        private static LogLevel toLogLevel(int priority) {
+            switch (priority) {
+                case VERBOSE:
+                case DEBUG:
+                    return LogLevel.DEBUG;
+                case INFO:
+                    return LogLevel.INFO;
+                case WARN:
+                    return LogLevel.WARN;
+                case ERROR:
+                    return LogLevel.ERROR;
+                default:
+                    return LogLevel.CRIT;
+            }
+        }
+
+        public void setLogLevel(LogLevel logLevel) {
+            this.logLevel = logLevel;
+        }
+
+        @Override
+        public void log(int priority, String tag, String message, Throwable t) {
+            // assuming DEBUG corresponds exactly to the SCION output (see below)
+            if (priority == DEBUG && !message.startsWith(SKIP_LINE_PREFIX))
+                messageLogLevel = Stream.of(LogLevel.values())
+                        .filter(e -> message.startsWith(e.getPrefix()))
+                        .findFirst().map(LogLevel::getValue).orElse(DEFAULT_LINE_LOG_LEVEL.getValue());
+
+            // all SCION output is logged as DEBUG, this output is filtered
+            // according to the log level. All other messages (i.e., from the app),
+            // are logged ignoring the log level.
+            if (priority > DEBUG || logLevel.getValue() <= messageLogLevel) {
+                // log with at least INFO because Logcat tends to ignore DEBUG messages
+                if (platformSink != null)
+                    platformSink.log(Math.max(INFO, priority), tag, message, t);
+                outputConsumer.accept(tag, priority == DEBUG
+                        ? LogLevel.values()[messageLogLevel] : toLogLevel(priority), message);
+            } else
+                Metrics.getInstance().countDroppedLogLine();
+        }
+    }
+
+    // Sets where messages are logged to (see Tree).
+    public static void setSink(Sink sink) {
+        Logger.sink = sink;
+    }
+
+    public static Tag tag(String tag) {
+        return new Tag(tag);
+    }
+
+    public static void d(String message, Object... args) {
+        log(DEBUG, null, null, message, args);
+    }
+
+    public static void i(String message, Object... args) {
+        log(INFO, null, null, message, args);
+    }
+
+    public static void w(String message, Object... args) {
+        log(WARN, null, null, message, args);
+    }
+
+    public static void e(String message, Object... args) {
+        log(ERROR, null, null, message, args);
+    }
+
+    public static void e(Throwable t) {
+        log(ERROR, null, t, null);
+    }
+
+    public static void e(Throwable t, String message, Object... args) {
+        log(ERROR, null, t, message, args);
+    }
+
+    // returns the simple name of the class that called the logger
+    private static String getCallerTag() {
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            String className = element.getClassName();
+            if (className.startsWith(Logger.class.getName()))
+                continue;
+            className = className.substring(className.lastIndexOf('.') + 1);
+            return className.contains("$") ? className.substring(0, className.indexOf('$')) : className;
+        }
+        return Logger.class.getSimpleName();
+    }
+
+    private static void log(int priority, String tag, Throwable t, String message, Object... args) {
+        if (message != null && args.length > 0)
+            message = String.format(message, args);
+        if (t != null) {
+            StringWriter sw = new StringWriter();
+            t.printStackTrace(new PrintWriter(sw));
+            message = message == null ? sw.toString() : message + "\n" + sw;
+        }
+        write(priority, tag == null ? getCallerTag() : tag, message == null ? "" : message, t);
+    }
+
+    private static void write(int priority, String tag, String message, Throwable t) {
+        sink.log(priority, tag, message, t);
+    }
+
+    static LogThread createLogThread(String tag, Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
+        // log all tailed files and processes as DEBUG
+        return new Logger.LogThread(line -> {
+            Metrics.getInstance().countLogLine(tag);
+            write(DEBUG, tag, line, null);
+        },
+                DELETE_PATTERN, UPDATE_INTERVAL, uncaughtExceptionHandler);
+    }
+
+    static LogThread createLogThread(String tag, Thread.UncaughtExceptionHandler uncaughtExceptionHandler, InputStream inputStream) {
+        return createLogThread(tag, uncaughtExceptionHandler).setInputStream(inputStream);
+    }
+}
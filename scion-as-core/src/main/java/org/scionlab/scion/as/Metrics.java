@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Registry of the app's own metrics (component states, restarts, logging and echo RTTs).
+ * Metrics are registered once and updated in place by the component registry, the logger
+ * and the components, so rendering them in the Prometheus text format only has to walk
+ * the registered families. There is one registry per process, like there is one logger.
+ */
+public class Metrics {
+    private static final Metrics instance = new Metrics();
+
+    private final List<Family> families = new CopyOnWriteArrayList<>();
+    private final Map<String, ComponentMetrics> componentMetrics = new ConcurrentHashMap<>();
+    private final Map<String, Counter> logLines = new ConcurrentHashMap<>();
+    private final Family componentState = register("scion_component_state", "gauge",
+            "state of a component (0 = stopped, 1 = starting, 2 = healthy, 3 = unhealthy)");
+    private final Family componentRestarts = register("scion_component_restarts_total", "counter",
+            "number of times a component was started again after it had been started before");
+    private final Family componentTimeToReady = register("scion_component_time_to_ready_seconds", "gauge",
+            "time between starting a component and it becoming ready (most recent start)");
+    private final Family logLinesFamily = register("scion_log_lines_total", "counter",
+            "number of log lines per component tag (use rate() for lines per second)");
+    private final Counter droppedLogLines = register("scion_log_lines_dropped_total", "counter",
+            "number of log lines filtered out by the log level").add(new Counter(""));
+    private final Family scmpRtt = register("scion_scmp_rtt_milliseconds", "gauge",
+            "quantiles of the echo RTT per probed destination");
+    private final Family scmpLossRate = register("scion_scmp_loss_ratio", "gauge",
+            "fraction of echo requests without a reply per probed destination");
+    private final Gauge vpnConnectLatency = register("scion_vpn_connect_latency_seconds", "gauge",
+            "time between binding to the VPN service and the VPN being connected (most recent connection)")
+            .add(new Gauge(""));
+    private final Gauge vpnReconnectLatency = register("scion_vpn_reconnect_latency_seconds", "gauge",
+            "time it took to re-establish the VPN tunnel after a pause (most recent pause)")
+            .add(new Gauge(""));
+    private final Counter vpnReconnects = register("scion_vpn_reconnects_total", "counter",
+            "number of times the VPN tunnel was re-established after a pause").add(new Counter(""));
+    private final Gauge handoverTimeToHealthy = register("scion_handover_time_to_healthy_seconds", "gauge",
+            "time between a network change and the AS being healthy again (most recent network change)")
+            .add(new Gauge(""));
+    private final Counter handovers = register("scion_handovers_total", "counter",
+            "number of network changes that caused a restart of the underlay components").add(new Counter(""));
+    private final StringBuilder stringBuilder = new StringBuilder();
+
+    static class Family {
+        private final String name, type, help;
+        private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+
+        private Family(String name, String type, String help) {
+            this.name = name;
+            this.type = type;
+            this.help = help;
+        }
+
+        <T extends Metric> T add(T metric) {
+            metrics.add(metric);
+            return metric;
+        }
+
+        void remove(Metric metric) {
+            metrics.remove(metric);
+        }
+    }
+
+    abstract static class Metric {
+        private final String labels; // rendered once, e.g., {component="Daemon"}
+
+        Metric(String labels) {
+            this.labels = labels;
+        }
+
+        abstract double getValue();
+    }
+
+    static class Counter extends Metric {
+        private final LongAdder value = new LongAdder();
+
+        Counter(String labels) {
+            super(labels);
+        }
+
+        void increment() {
+            value.increment();
+        }
+
+        @Override
+        double getValue() {
+            return value.sum();
+        }
+    }
+
+    static class Gauge extends Metric {
+        private volatile double value = Double.NaN;
+        private final DoubleSupplier supplier;
+
+        Gauge(String labels) {
+            this(labels, null);
+        }
+
+        // a gauge with a supplier is evaluated whenever the metrics are rendered
+        Gauge(String labels, DoubleSupplier supplier) {
+            super(labels);
+            this.supplier = supplier;
+        }
+
+        void set(double value) {
+            this.value = value;
+        }
+
+        @Override
+        double getValue() {
+            return supplier != null ? supplier.getAsDouble() : value;
+        }
+    }
+
+    static class ComponentMetrics {
+        private final Gauge state, timeToReady;
+        private final Counter restarts;
+        private volatile long startTime = -1;
+        private boolean hasStarted;
+
+        private ComponentMetrics(Metrics metrics, String tag) {
+            String labels = labels("component", tag);
+            state = metrics.componentState.add(new Gauge(labels));
+            state.set(ScionAS.State.STOPPED.ordinal());
+            restarts = metrics.componentRestarts.add(new Counter(labels));
+            timeToReady = metrics.componentTimeToReady.add(new Gauge(labels));
+        }
+
+        synchronized void started() {
+            if (hasStarted)
+                restarts.increment();
+            hasStarted = true;
+            startTime = System.nanoTime();
+        }
+
+        void ready() {
+            long startTime = this.startTime;
+            if (startTime >= 0)
+                timeToReady.set((System.nanoTime() - startTime) / 1e9);
+            this.startTime = -1;
+        }
+
+        void setState(ScionAS.State state) {
+            this.state.set(state.ordinal());
+        }
+    }
+
+    // Metrics of the echo requests to a single destination.
+    static class ScmpMetrics {
+        private final Metrics metrics;
+        private final Gauge p50, p90, p99, lossRate;
+
+        private ScmpMetrics(Metrics metrics, String remoteAddress) {
+            this.metrics = metrics;
+            p50 = metrics.scmpRtt.add(new Gauge(labels("destination", remoteAddress, "quantile", "0.5")));
+            p90 = metrics.scmpRtt.add(new Gauge(labels("destination", remoteAddress, "quantile", "0.9")));
+            p99 = metrics.scmpRtt.add(new Gauge(labels("destination", remoteAddress, "quantile", "0.99")));
+            lossRate = metrics.scmpLossRate.add(new Gauge(labels("destination", remoteAddress)));
+        }
+
+        void update(RttRecorder.Statistics statistics) {
+            boolean hasReplies = statistics.getCount() > 0;
+            p50.set(hasReplies ? statistics.getP50() : Double.NaN);
+            p90.set(hasReplies ? statistics.getP90() : Double.NaN);
+            p99.set(hasReplies ? statistics.getP99() : Double.NaN);
+            lossRate.set(statistics.getLossRate());
+        }
+
+        void unregister() {
+            metrics.scmpRtt.remove(p50);
+            metrics.scmpRtt.remove(p90);
+            metrics.scmpRtt.remove(p99);
+            metrics.scmpLossRate.remove(lossRate);
+        }
+    }
+
+    private Metrics() {
+        register("scion_threads", "gauge", "number of live threads in the app process")
+                .add(new Gauge("", () -> Thread.activeCount()));
+    }
+
+    static Metrics getInstance() {
+        return instance;
+    }
+
+    Family register(String name, String type, String help) {
+        Family family = new Family(name, type, help);
+        families.add(family);
+        return family;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    // Renders label names and values, e.g., labels("component", "Daemon") = {component="Daemon"}.
+    static String labels(String... namesAndValues) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i + 1 < namesAndValues.length; i += 2)
+            sb.append(i > 0 ? "," : "").append(namesAndValues[i])
+                    .append("=\"").append(escape(namesAndValues[i + 1])).append('"');
+        return sb.append('}').toString();
+    }
+
+    ComponentMetrics getComponentMetrics(String tag) {
+        return componentMetrics.computeIfAbsent(tag, _tag -> new ComponentMetrics(this, _tag));
+    }
+
+    ScmpMetrics createScmpMetrics(String remoteAddress) {
+        return new ScmpMetrics(this, remoteAddress);
+    }
+
+    void countLogLine(String tag) {
+        Counter counter = logLines.get(tag);
+        if (counter == null)
+            counter = logLines.computeIfAbsent(tag, _tag -> logLinesFamily.add(new Counter(labels("tag", _tag))));
+        counter.increment();
+    }
+
+    void countDroppedLogLine() {
+        droppedLogLines.increment();
+    }
+
+    void setVPNConnectLatency(double seconds) {
+        vpnConnectLatency.set(seconds);
+    }
+
+    void countHandover() {
+        handovers.increment();
+    }
+
+    void setHandoverTimeToHealthy(double seconds) {
+        handoverTimeToHealthy.set(seconds);
+    }
+
+    void recordVPNReconnect(double seconds) {
+        vpnReconnectLatency.set(seconds);
+        vpnReconnects.increment();
+    }
+
+    private static void appendValue(StringBuilder sb, double value) {
+        if (Double.isNaN(value))
+            sb.append("NaN");
+        else if (Double.isInfinite(value))
+            sb.append(value > 0 ? "+Inf" : "-Inf");
+        else if (value == (long) value)
+            sb.append((long) value);
+        else
+            sb.append(value);
+    }
+
+    // Renders all metrics in the Prometheus text exposition format.
+    synchronized String render() {
+        StringBuilder sb = stringBuilder;
+        sb.setLength(0);
+        for (Family family : families) {
+            if (family.metrics.isEmpty())
+                continue;
+            sb.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            sb.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Metric metric : family.metrics) {
+                sb.append(family.name).append(metric.labels).append(' ');
+                appendValue(sb, metric.getValue());
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
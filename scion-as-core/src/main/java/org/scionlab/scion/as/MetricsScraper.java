@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.scionlab.scion.as.Config.MetricsScraper.*;
+
+/**
+ * Periodically scrapes the Prometheus endpoints of the local SCION components and stores the
+ * samples (along with the resources sampled by ResourceSampler) in a time-series store. The
+ * text exposition format is parsed in place from a reusable buffer, so a scrape only allocates
+ * when new series appear.
+ */
+class MetricsScraper extends Component {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final TimeSeriesStore timeSeriesStore;
+    private final Map<String, String> endpoints;
+    private final ResourceSampler resourceSampler;
+    private final Set<String> unreachable = new HashSet<>();
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+    MetricsScraper(TimeSeriesStore timeSeriesStore, Map<String, String> endpoints) {
+        this.timeSeriesStore = timeSeriesStore;
+        this.endpoints = endpoints;
+        resourceSampler = new ResourceSampler(timeSeriesStore);
+    }
+
+    // Prometheus endpoints of all SCION components, as configured in their templates.
+    static Map<String, String> getComponentEndpoints() {
+        Map<String, String> endpoints = new LinkedHashMap<>();
+        endpoints.put(Dispatcher.class.getSimpleName(), Config.Dispatcher.METRICS_ADDRESS);
+        endpoints.put(BorderRouter.class.getSimpleName(), Config.BorderRouter.METRICS_ADDRESS);
+        endpoints.put(ControlServer.class.getSimpleName(), Config.ControlServer.METRICS_ADDRESS);
+        endpoints.put(Daemon.class.getSimpleName(), Config.Daemon.METRICS_ADDRESS);
+        return endpoints;
+    }
+
+    // Reads the response body into the reusable buffer, growing it if needed, and returns its length.
+    private int read(InputStream inputStream) throws IOException {
+        int length = 0;
+        for (int n = inputStream.read(buffer, 0, buffer.length); n >= 0;
+             n = inputStream.read(buffer, length, buffer.length - length)) {
+            length += n;
+            if (length == buffer.length) {
+                if (buffer.length >= MAX_BUFFER_SIZE)
+                    throw new IOException("metrics response is too large");
+                byte[] newBuffer = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, newBuffer, 0, length);
+                buffer = newBuffer;
+            }
+        }
+        return length;
+    }
+
+    private int scrape(String group, String address, long time) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://" + address + METRICS_PATH).openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        try (InputStream inputStream = connection.getInputStream()) {
+            return parse(timeSeriesStore, group, buffer, read(inputStream), time);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    // Parses samples in the Prometheus text exposition format (name{labels} value [timestamp])
+    // and adds them to the store. Comments and malformed lines are skipped.
+    static int parse(TimeSeriesStore timeSeriesStore, String group, byte[] buffer, int length, long time) {
+        int samples = 0;
+        for (int start = 0, end; start < length; start = end + 1) {
+            end = start;
+            while (end < length && buffer[end] != '\n')
+                end++;
+            if (end == start || buffer[start] == '#')
+                continue;
+
+            // the key extends up to the first space outside of the (quoted) label values
+            int keyEnd = start;
+            boolean inLabels = false, inQuotes = false;
+            for (; keyEnd < end; keyEnd++) {
+                byte b = buffer[keyEnd];
+                if (inQuotes) {
+                    if (b == '\\')
+                        keyEnd++;
+                    else if (b == '"')
+                        inQuotes = false;
+                } else if (b == '"' && inLabels)
+                    inQuotes = true;
+                else if (b == '{')
+                    inLabels = true;
+                else if (b == '}')
+                    inLabels = false;
+                else if ((b == ' ' || b == '\t') && !inLabels)
+                    break;
+            }
+
+            int valueStart = keyEnd;
+            while (valueStart < end && (buffer[valueStart] == ' ' || buffer[valueStart] == '\t'))
+                valueStart++;
+            int valueEnd = valueStart;
+            while (valueEnd < end && buffer[valueEnd] != ' ' && buffer[valueEnd] != '\t' && buffer[valueEnd] != '\r')
+                valueEnd++;
+            if (keyEnd == start || valueEnd == valueStart)
+                continue;
+
+            double value = parseDouble(buffer, valueStart, valueEnd);
+            if (Double.isNaN(value) && !isNaN(buffer, valueStart, valueEnd))
+                continue;
+            TimeSeriesStore.Series series = timeSeriesStore.getOrCreate(group, buffer, start, keyEnd - start);
+            if (series != null) {
+                series.add(time, value);
+                samples++;
+            }
+        }
+        return samples;
+    }
+
+    private static boolean isNaN(byte[] buffer, int start, int end) {
+        return end - start == 3 && buffer[start] == 'N' && buffer[start + 1] == 'a' && buffer[start + 2] == 'N';
+    }
+
+    // Parses a floating point number without allocating (exact for up to 15 significant digits),
+    // falls back to Double.parseDouble for unusual notations. Returns NaN if it cannot be parsed.
+    static double parseDouble(byte[] buffer, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+'))
+            negative = buffer[i++] == '-';
+        long mantissa = 0;
+        int digits = 0, exponent = 0;
+        boolean hasDigits = false;
+        for (; i < end && buffer[i] >= '0' && buffer[i] <= '9'; i++, hasDigits = true)
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (buffer[i] - '0');
+                if (mantissa > 0)
+                    digits++;
+            } else
+                exponent++;
+        if (i < end && buffer[i] == '.')
+            for (i++; i < end && buffer[i] >= '0' && buffer[i] <= '9'; i++, hasDigits = true)
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (buffer[i] - '0');
+                    exponent--;
+                    if (mantissa > 0)
+                        digits++;
+                }
+        if (hasDigits && i < end && (buffer[i] == 'e' || buffer[i] == 'E')) {
+            int j = i + 1;
+            boolean negativeExponent = false;
+            if (j < end && (buffer[j] == '-' || buffer[j] == '+'))
+                negativeExponent = buffer[j++] == '-';
+            int explicitExponent = 0;
+            boolean hasExponentDigits = false;
+            for (; j < end && buffer[j] >= '0' && buffer[j] <= '9'; j++, hasExponentDigits = true)
+                explicitExponent = Math.min(explicitExponent * 10 + (buffer[j] - '0'), 10000);
+            if (hasExponentDigits) {
+                exponent += negativeExponent ? -explicitExponent : explicitExponent;
+                i = j;
+            }
+        }
+
+        if (hasDigits && i == end && digits <= 15 && Math.abs(exponent) < POWERS_OF_TEN.length) {
+            double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+        try {
+            // handles +Inf, -Inf, NaN and numbers with many significant digits
+            String value = new String(buffer, start, end - start, StandardCharsets.US_ASCII);
+            return value.endsWith("Inf") ? (value.startsWith("-") ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY)
+                    : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    @Override
+    boolean isAuxiliary() {
+        return true;
+    }
+
+    @Override
+    void run() {
+        setReady();
+        try {
+            while (true) {
+                long time = System.currentTimeMillis();
+                for (Map.Entry<String, String> endpoint : endpoints.entrySet()) {
+                    try {
+                        scrape(endpoint.getKey(), endpoint.getValue(), time);
+                        if (unreachable.remove(endpoint.getKey()))
+                            Logger.tag(getTag()).i("scraping metrics of %s", endpoint.getKey());
+                    } catch (IOException e) {
+                        // the component is probably not running (yet), only log this once
+                        if (unreachable.add(endpoint.getKey()))
+                            Logger.tag(getTag()).i("could not scrape metrics of %s: %s", endpoint.getKey(), e.getMessage());
+                    }
+                }
+                Scmp scmp = getComponent(Scmp.class);
+                resourceSampler.sample(time, scmp == null ? Collections.emptyMap() : scmp.getStatistics());
+                timeSeriesStore.notifyListeners();
+                Thread.sleep(SCRAPE_INTERVAL);
+            }
+        } catch (InterruptedException ignored) {
+        }
+    }
+}
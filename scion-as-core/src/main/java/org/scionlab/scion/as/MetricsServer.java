@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+import static org.scionlab.scion.as.Config.MetricsServer.*;
+
+/**
+ * Serves the app's own metrics (see Metrics) in the Prometheus text format on localhost,
+ * so the AS can be scraped like any other SCION node. Requests are handled one at a time.
+ */
+class MetricsServer extends Component {
+    private final Metrics metrics;
+
+    MetricsServer(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    boolean isAuxiliary() {
+        return true;
+    }
+
+    private void respond(Socket socket) throws IOException {
+        socket.setSoTimeout(TIMEOUT);
+        BufferedReader br = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        String requestLine = br.readLine();
+        // skip the headers, we do not care about them
+        for (String line = br.readLine(); line != null && !line.isEmpty(); line = br.readLine()) ;
+
+        String[] request = requestLine == null ? new String[0] : requestLine.split(" ");
+        boolean isMetrics = request.length >= 2 && request[0].equals("GET") && request[1].equals(METRICS_PATH);
+        byte[] body = (isMetrics ? metrics.render() : "not found\n").getBytes(StandardCharsets.UTF_8);
+        OutputStream outputStream = socket.getOutputStream();
+        outputStream.write(((isMetrics ? "HTTP/1.1 200 OK" : "HTTP/1.1 404 Not Found") + "\r\n" +
+                "Content-Type: " + (isMetrics ? CONTENT_TYPE : "text/plain") + "\r\n" +
+                "Content-Length: " + body.length + "\r\n" +
+                "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        outputStream.write(body);
+        outputStream.flush();
+    }
+
+    @Override
+    void run() {
+        try (ServerSocket serverSocket = new ServerSocket(PORT, BACKLOG, InetAddress.getByName(ADDRESS))) {
+            // time out regularly so the thread notices when it is interrupted
+            serverSocket.setSoTimeout(ACCEPT_TIMEOUT);
+            Logger.tag(getTag()).i("serving metrics on %s:%d%s", ADDRESS, PORT, METRICS_PATH);
+            setReady();
+            while (!Thread.currentThread().isInterrupted()) {
+                try (Socket socket = serverSocket.accept()) {
+                    respond(socket);
+                } catch (SocketTimeoutException ignored) {
+                } catch (IOException e) {
+                    Logger.tag(getTag()).w("could not serve metrics: %s", e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            Logger.tag(getTag()).e(e, "could not open metrics endpoint");
+        }
+    }
+}
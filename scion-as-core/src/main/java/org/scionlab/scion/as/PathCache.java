@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.scionlab.scion.as.Config.PathMonitor.*;
+
+/**
+ * In-memory cache of the paths known for destination ISD-ASes, as discovered by the
+ * path monitor. Entries are evicted after a TTL and individual paths when they expire.
+ */
+public class PathCache {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public static class Path {
+        private final int index;
+        private final List<String> hops;
+        private final String interfaces;
+        private final int mtu;
+        private final long expiry;
+        private final String status;
+        private volatile double latency = Double.NaN;
+
+        Path(int index, List<String> hops, String interfaces, int mtu, long expiry, String status) {
+            this.index = index;
+            this.hops = Collections.unmodifiableList(hops);
+            this.interfaces = interfaces;
+            this.mtu = mtu;
+            this.expiry = expiry;
+            this.status = status;
+        }
+
+        // position of this path in the daemon's answer (the first path is used by default)
+        public int getIndex() {
+            return index;
+        }
+
+        // ISD-ASes traversed by this path, starting with the local AS
+        public List<String> getHops() {
+            return hops;
+        }
+
+        // hop list as printed by SCION, including interface IDs (e.g., 19-ffaa:1:cf4 1>3 19-ffaa:0:1301)
+        public String getInterfaces() {
+            return interfaces;
+        }
+
+        public int getMtu() {
+            return mtu;
+        }
+
+        // expiration time of the path (in ms since epoch), or -1 if unknown
+        public long getExpiry() {
+            return expiry;
+        }
+
+        // path status reported by SCION (e.g., alive), or null if unknown
+        public String getStatus() {
+            return status;
+        }
+
+        // median RTT (in ms) of the latest echo requests sent over this path, or NaN if none was answered
+        public double getLatency() {
+            return latency;
+        }
+
+        boolean isExpired(long now) {
+            return expiry >= 0 && expiry <= now;
+        }
+    }
+
+    private static class Entry {
+        private final List<Path> paths;
+        private final long fetched;
+
+        Entry(List<Path> paths, long fetched) {
+            this.paths = Collections.unmodifiableList(paths);
+            this.fetched = fetched;
+        }
+    }
+
+    void put(String isdAs, List<Path> paths) {
+        entries.put(isdAs, new Entry(paths, System.currentTimeMillis()));
+    }
+
+    // Returns the unexpired paths to the given ISD-AS, or an empty list if none are cached.
+    public List<Path> get(String isdAs) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(isdAs);
+        if (entry == null)
+            return Collections.emptyList();
+        if (now - entry.fetched > CACHE_TTL) {
+            entries.remove(isdAs, entry);
+            return Collections.emptyList();
+        }
+        return entry.paths.stream().filter(path -> !path.isExpired(now)).collect(Collectors.toList());
+    }
+
+    // Attaches a measured latency to the path with the given index to the given ISD-AS.
+    void attachLatency(String isdAs, int index, double latency) {
+        get(isdAs).stream().filter(path -> path.index == index).findFirst()
+                .ifPresent(path -> path.latency = latency);
+    }
+
+    void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(e -> now - e.getValue().fetched > CACHE_TTL);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+import static org.scionlab.scion.as.Config.PathMonitor.*;
+
+/**
+ * Periodically asks the daemon for the paths to a set of destination ISD-ASes (using the
+ * showpaths tool) and keeps them in a path cache, so the user interface and other components
+ * can look up paths without spawning a process. Every cached path is then probed with a few
+ * echo requests that are pinned to it, so each path carries its own latency.
+ */
+class PathMonitor extends Component {
+    private final PathCache pathCache;
+    private volatile Map<String, String> destinations;
+
+    PathMonitor(PathCache pathCache, Collection<String> addresses) {
+        this.pathCache = pathCache;
+        setDestinations(addresses);
+    }
+
+    @Override
+    boolean isAuxiliary() {
+        return true;
+    }
+
+    @Override
+    Class[] dependsOn() {
+        return new Class[]{Dispatcher.class, Daemon.class};
+    }
+
+    // Paths are monitored for the ISD-ASes of the given addresses, the first address in each ISD-AS is probed.
+    void setDestinations(Collection<String> addresses) {
+        Map<String, String> destinations = new LinkedHashMap<>();
+        for (String address : addresses)
+            destinations.putIfAbsent(getIsdAs(address), address);
+        this.destinations = Collections.unmodifiableMap(destinations);
+    }
+
+    // Extracts the ISD-AS from a SCION address such as 19-ffaa:0:1301,[127.0.0.1].
+    static String getIsdAs(String address) {
+        int separator = address.indexOf(',');
+        return separator < 0 ? address : address.substring(0, separator);
+    }
+
+    private static long parseExpiry(String expiry) {
+        try {
+            SimpleDateFormat dateFormat = new SimpleDateFormat(EXPIRY_DATE_FORMAT, Locale.US);
+            //noinspection ConstantConditions
+            return dateFormat.parse(expiry).getTime();
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    // Parses the output of showpaths, which lists every path with its hops followed by
+    // its properties (on the same line or, in extended mode, on the following lines).
+    static List<PathCache.Path> parsePaths(InputStream inputStream) throws IOException {
+        List<PathCache.Path> paths = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
+            Integer index = null;
+            String interfaces = null, status = null;
+            int mtu = -1;
+            long expiry = -1;
+            for (String line = br.readLine(); ; line = br.readLine()) {
+                Matcher pathMatcher = line == null ? null : PATH_PATTERN.matcher(line);
+                if (line == null || pathMatcher.find()) {
+                    if (index != null)
+                        paths.add(new PathCache.Path(index, parseHops(interfaces), interfaces, mtu, expiry, status));
+                    if (line == null)
+                        break;
+                    index = Integer.parseInt(pathMatcher.group(1));
+                    interfaces = pathMatcher.group(2).trim();
+                    status = null;
+                    mtu = -1;
+                    expiry = -1;
+                }
+                if (index == null)
+                    continue;
+                Matcher matcher = MTU_PATTERN.matcher(line);
+                if (matcher.find())
+                    mtu = Integer.parseInt(matcher.group(1));
+                matcher = EXPIRY_PATTERN.matcher(line);
+                if (matcher.find())
+                    expiry = parseExpiry(matcher.group(1));
+                matcher = STATUS_PATTERN.matcher(line);
+                if (matcher.find())
+                    status = matcher.group(1);
+            }
+        }
+        return paths;
+    }
+
+    private static List<String> parseHops(String interfaces) {
+        List<String> hops = new ArrayList<>();
+        Matcher matcher = ISD_AS_PATTERN.matcher(interfaces);
+        while (matcher.find())
+            hops.add(matcher.group());
+        return hops;
+    }
+
+    // Converts a hop list (e.g., 19-ffaa:1:cf4 1>3 19-ffaa:0:1301 2>5 19-ffaa:0:1303) to the hop predicates
+    // that pin echo requests to that path (e.g., 19-ffaa:1:cf4#1 19-ffaa:0:1301#3,2 19-ffaa:0:1303#5),
+    // returns null if the hop list cannot be converted.
+    static String getSequence(String interfaces) {
+        String[] tokens = interfaces.trim().split("\\s+");
+        if (tokens.length < 3 || tokens.length % 2 == 0)
+            return null;
+        List<String> predicates = new ArrayList<>();
+        String ingress = null;
+        for (int i = 0; i < tokens.length; i += 2) {
+            if (!ISD_AS_PATTERN.matcher(tokens[i]).matches())
+                return null;
+            String egress = null, nextIngress = null;
+            if (i + 1 < tokens.length) {
+                Matcher matcher = INTERFACE_PATTERN.matcher(tokens[i + 1]);
+                if (!matcher.matches())
+                    return null;
+                egress = matcher.group(1);
+                nextIngress = matcher.group(2);
+            }
+            predicates.add(tokens[i] + "#" + (ingress == null ? egress : egress == null ? ingress : ingress + "," + egress));
+            ingress = nextIngress;
+        }
+        return String.join(" ", predicates);
+    }
+
+    private void refresh(String isdAs) {
+        ComponentRegistry componentRegistry = this.componentRegistry;
+        if (componentRegistry == null)
+            return;
+        List<List<PathCache.Path>> result = new ArrayList<>();
+        Process.from(componentRegistry.getBinaryPath(), getTag(), storage, componentRegistry.getUncaughtExceptionHandler())
+                .setSchedulingPolicy(SCHEDULING_POLICY)
+                .addArgument(BINARY_FLAG)
+                .addArgument(SHOWPATHS_FLAG, isdAs)
+                .addArgument(EXTENDED_FLAG)
+                .addArgument(MAX_PATHS_FLAG, String.valueOf(MAX_PATHS))
+                .addArgument(DAEMON_ADDRESS_FLAG, DAEMON_ADDRESS)
+                .run(inputStream -> {
+                    try {
+                        result.add(parsePaths(inputStream));
+                    } catch (IOException e) {
+                        Logger.tag(getTag()).e(e);
+                    }
+                });
+
+        if (result.isEmpty() || result.get(0).isEmpty()) {
+            Logger.tag(getTag()).w("no paths to %s found", isdAs);
+            return;
+        }
+        Logger.tag(getTag()).i("found %d paths to %s", result.get(0).size(), isdAs);
+        pathCache.put(isdAs, result.get(0));
+    }
+
+    // sends a few echo requests over every cached path to the given address and attaches their median RTT
+    private void probe(String isdAs, String address) {
+        ComponentRegistry componentRegistry = this.componentRegistry;
+        if (componentRegistry == null)
+            return;
+        for (PathCache.Path path : pathCache.get(isdAs)) {
+            String sequence = getSequence(path.getInterfaces());
+            if (sequence == null)
+                continue;
+            List<Long> rtts = new ArrayList<>();
+            Process.from(componentRegistry.getBinaryPath(), getTag(), storage, componentRegistry.getUncaughtExceptionHandler())
+                    .setSchedulingPolicy(SCHEDULING_POLICY)
+                    .addArgument(BINARY_FLAG)
+                    .addArgument(ECHO_FLAG)
+                    .addArgument(SEQUENCE_FLAG, sequence)
+                    .addArgument(COUNT_FLAG, String.valueOf(PROBE_COUNT))
+                    .addArgument(INTERVAL_FLAG, PROBE_INTERVAL)
+                    .addArgument(DISPATCHER_SOCKET_FLAG, storage.getAbsolutePath(Config.Dispatcher.SOCKET_PATH))
+                    .addArgument(DAEMON_ADDRESS_FLAG, DAEMON_ADDRESS)
+                    .addArgument(address)
+                    .watchFor(Config.Scmp.REPLY_PATTERN, matcher -> {
+                        try {
+                            rtts.add(Scmp.parseRtt(matcher.group(2), matcher.group(3)));
+                        } catch (NumberFormatException ignored) {
+                        }
+                    })
+                    .run();
+            if (rtts.isEmpty())
+                continue;
+            Collections.sort(rtts);
+            pathCache.attachLatency(isdAs, path.getIndex(), rtts.get(rtts.size() / 2) / 1000.0);
+        }
+    }
+
+    @Override
+    void run() {
+        // the monitor is ready as soon as it runs, unreachable destinations should not delay the AS
+        setReady();
+        try {
+            while (true) {
+                pathCache.evictExpired();
+                for (Map.Entry<String, String> e : destinations.entrySet()) {
+                    refresh(e.getKey());
+                    probe(e.getKey(), e.getValue());
+                }
+                Thread.sleep(REFRESH_INTERVAL);
+            }
+        } catch (InterruptedException ignored) {
+        } finally {
+            pathCache.clear();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import static org.scionlab.scion.as.Config.Scmp.*;
+
+/**
+ * Phi accrual failure detector (Hayashibara et al.) for echo replies. Instead of a fixed
+ * timeout, the inter-arrival times of replies (i.e., the ping interval plus RTT variation)
+ * are modeled as a normal distribution. Phi expresses how unlikely it is that the next reply
+ * is merely late, so high-latency paths with jitter and fast, stable links both get a
+ * suitable timeout. The detector also counts state flaps and measures how long it takes
+ * to detect an outage.
+ */
+class PhiAccrualDetector {
+    private final double threshold;
+    private final long[] intervals = new long[PHI_SAMPLES];
+    private int next, count;
+    private long intervalSum, intervalSquaredSum;
+    private long lastArrival = -1;
+    private boolean available;
+    private int flaps;
+    private long lastDetectionTime = -1;
+
+    PhiAccrualDetector(double threshold) {
+        this.threshold = threshold;
+        // bootstrap with the nominal interval, so the detector works before enough samples exist
+        addInterval(PING_INTERVAL - PING_INTERVAL / 4);
+        addInterval(PING_INTERVAL + PING_INTERVAL / 4);
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1000000;
+    }
+
+    private void addInterval(long interval) {
+        if (count == intervals.length) {
+            intervalSum -= intervals[next];
+            intervalSquaredSum -= intervals[next] * intervals[next];
+        } else
+            count++;
+        intervals[next] = interval;
+        intervalSum += interval;
+        intervalSquaredSum += interval * interval;
+        next = (next + 1) % intervals.length;
+    }
+
+    // Is called for every received reply.
+    synchronized void heartbeat() {
+        long now = now();
+        if (lastArrival >= 0)
+            addInterval(now - lastArrival);
+        lastArrival = now;
+        update(now);
+    }
+
+    synchronized double getPhi() {
+        return phi(now());
+    }
+
+    private double phi(long now) {
+        if (lastArrival < 0)
+            return Double.POSITIVE_INFINITY;
+        double mean = intervalSum / (double) count;
+        double variance = intervalSquaredSum / (double) count - mean * mean;
+        double standardDeviation = Math.max(Math.sqrt(Math.max(variance, 0)), MIN_STANDARD_DEVIATION);
+        // logistic approximation of the normal CDF, see Akka's PhiAccrualFailureDetector
+        double y = (now - lastArrival - mean) / standardDeviation;
+        double e = Math.exp(-y * (1.5976 + 0.070566 * y * y));
+        return now - lastArrival > mean
+                ? -Math.log10(e / (1.0 + e))
+                : -Math.log10(1.0 - 1.0 / (1.0 + e));
+    }
+
+    // Re-evaluates availability and returns whether the remote is considered available.
+    synchronized boolean update() {
+        return update(now());
+    }
+
+    private boolean update(long now) {
+        boolean isAvailable = phi(now) < threshold;
+        if (isAvailable != available) {
+            if (lastArrival >= 0 && count > 2)
+                flaps++;
+            if (!isAvailable && lastArrival >= 0)
+                lastDetectionTime = now - lastArrival;
+            available = isAvailable;
+        }
+        return available;
+    }
+
+    synchronized boolean isAvailable() {
+        return available;
+    }
+
+    // number of transitions between available and unavailable after the first reply
+    synchronized int getFlaps() {
+        return flaps;
+    }
+
+    // time (in ms) between the last reply and detecting the most recent outage, or -1
+    synchronized long getLastDetectionTime() {
+        return lastDetectionTime;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Everything the AS needs from the platform it runs on, so the orchestration itself runs on
+ * Android as well as on a plain JVM (e.g., for benchmarks and tests against fake SCION binaries).
+ * Logging is platform-independent (see Logger), the platform only decides where lines end up.
+ */
+public interface Platform {
+    // root of INTERNAL/ paths (see Storage), must support Unix sockets
+    File getInternalFilesDirectory();
+
+    // root of EXTERNAL/ paths (see Storage)
+    File getExternalFilesDirectory();
+
+    // returns whether a process accepts connections on the given Unix socket
+    boolean canConnect(File socket);
+
+    // opens a file shipped with the application, such as a configuration template
+    InputStream openAsset(String path) throws IOException;
+
+    // directory that contains the SCION binary (see Process)
+    String getNativeLibraryDirectory();
+
+    // handles crashes of component threads, e.g., by notifying the user
+    Thread.UncaughtExceptionHandler getUncaughtExceptionHandler();
+
+    // creates the component that connects the AS to the SCIONLab network,
+    // the configuration is null if no VPN is needed
+    VPNClient createVPNClient(String config);
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.scionlab.scion.as.Config.Power.*;
+
+/**
+ * Presets for how often the control plane does its periodic work. A leaf AS on a phone does not
+ * need to beacon as often as a core AS, and each round costs CPU time and wakes up the radio.
+ * A profile provides values for the configuration templates (see ConfigTemplate), so only the
+ * components whose rendered configuration changes need to be restarted when switching.
+ */
+public enum PowerProfile {
+    PERFORMANCE("5s", "5s", "5s", 4, 2, "1m"),
+    BALANCED("30s", "30s", "30s", 2, 1, "5m"),
+    BATTERY_SAVER("2m", "2m", "2m", 1, 1, "15m");
+
+    private final Map<String, String> configValues = new LinkedHashMap<>();
+
+    PowerProfile(String originationInterval, String propagationInterval, String registrationInterval,
+                 int maxOpenConnections, int maxIdleConnections, String queryInterval) {
+        configValues.put("origination_interval", originationInterval);
+        configValues.put("propagation_interval", propagationInterval);
+        configValues.put("registration_interval", registrationInterval);
+        configValues.put("max_open_conns", String.valueOf(maxOpenConnections));
+        configValues.put("max_idle_conns", String.valueOf(maxIdleConnections));
+        configValues.put("query_interval", queryInterval);
+    }
+
+    // Values for the configuration templates, keyed by placeholder name.
+    Map<String, String> getConfigValues() {
+        return configValues;
+    }
+
+    // Chooses a profile for the given battery state, the battery level is in percent.
+    public static PowerProfile forBattery(boolean isCharging, int batteryLevel, boolean isPowerSaveMode) {
+        if (isCharging)
+            return PERFORMANCE;
+        if (isPowerSaveMode || batteryLevel <= LOW_BATTERY_LEVEL)
+            return BATTERY_SAVER;
+        return BALANCED;
+    }
+}
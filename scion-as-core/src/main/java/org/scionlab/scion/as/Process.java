@@ -17,22 +17,22 @@
 
 package org.scionlab.scion.as;
 
-import android.content.Context;
-
-import org.scionlab.scion.UncaughtExceptionHandler;
-
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-import timber.log.Timber;
-
 import static org.scionlab.scion.as.Config.Process.*;
 
 /**
@@ -40,12 +40,16 @@ import static org.scionlab.scion.as.Config.Process.*;
  */
 public class Process {
     private static String nativeLibraryDir;
+    private static final Map<String, Set<Integer>> pids = new ConcurrentHashMap<>();
+    private static final Map<String, RuntimeProfile.Settings> runtimeSettingsByTag = new ConcurrentHashMap<>();
     private String binaryPath;
     private String tag;
     private Storage storage;
     private Logger.LogThread logThread;
     private Map<String, String> environment = new HashMap<>();
     private ArrayList<String> arguments = new ArrayList<>();
+    private RuntimeProfile.Settings runtimeSettings;
+    private SchedulingPolicy schedulingPolicy;
 
     private Process(String binaryPath, String tag, Storage storage) {
         this.binaryPath = binaryPath;
@@ -59,19 +63,60 @@ public class Process {
         return new Process(binaryPath, tag, storage).setLogThread(logThread);
     }
 
-    public static Process from(String binaryPath, String tag, Storage storage, UncaughtExceptionHandler uncaughtExceptionHandler) {
+    public static Process from(String binaryPath, String tag, Storage storage, Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
         return from(binaryPath, tag, storage, Logger.createLogThread(tag, uncaughtExceptionHandler));
     }
 
-    static void initialize(Context context) {
+    static void initialize(Platform platform) {
         if (nativeLibraryDir == null) {
-            nativeLibraryDir = context.getApplicationInfo().nativeLibraryDir;
-            Timber.i("native SCION binary is located in %s", nativeLibraryDir);
+            nativeLibraryDir = platform.getNativeLibraryDirectory();
+            Logger.i("native SCION binary is located in %s", nativeLibraryDir);
         }
     }
 
-    private Timber.Tree timber() {
-        return Timber.tag(tag);
+    private Logger.Tag logger() {
+        return Logger.tag(tag);
+    }
+
+    // Returns the process IDs of all running processes with the given tag.
+    static Set<Integer> getPids(String tag) {
+        Set<Integer> _pids = pids.get(tag);
+        return _pids == null ? Collections.emptySet() : _pids;
+    }
+
+    static Set<String> getTagsWithPids() {
+        return pids.keySet();
+    }
+
+    // Returns the Go runtime settings the last process with the given tag was started with, or null.
+    static RuntimeProfile.Settings getRuntimeSettings(String tag) {
+        return runtimeSettingsByTag.get(tag);
+    }
+
+    // java.lang.Process has no pid() before Java 9, but Android's implementation prints it.
+    private static int getPid(java.lang.Process process) {
+        Matcher matcher = PID_PATTERN.matcher(process.toString());
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    private int addPid(java.lang.Process process) {
+        int pid = getPid(process);
+        if (runtimeSettings != null)
+            runtimeSettingsByTag.put(tag, runtimeSettings);
+        if (pid >= 0)
+            pids.compute(tag, (_tag, _pids) -> {
+                Set<Integer> newPids = _pids == null ? ConcurrentHashMap.newKeySet() : _pids;
+                newPids.add(pid);
+                return newPids;
+            });
+        return pid;
+    }
+
+    private void removePid(int pid) {
+        pids.computeIfPresent(tag, (_tag, _pids) -> {
+            _pids.remove(pid);
+            return _pids.isEmpty() ? null : _pids;
+        });
     }
 
     private Process setLogThread(Logger.LogThread logThread) {
@@ -87,6 +132,13 @@ public class Process {
         return this;
     }
 
+    Process watchFor(Pattern watchPattern, Consumer<Matcher> watchCallback) {
+        if (logThread == null)
+            throw new RuntimeException("no log thread given");
+        logThread.watchFor(watchPattern, watchCallback);
+        return this;
+    }
+
     public Process addEnvironmentVariable(String key, String value) {
         environment.put(key, value);
         return this;
@@ -97,6 +149,19 @@ public class Process {
         return this;
     }
 
+    // Tunes the Go runtime of the process (see RuntimeProfile).
+    Process setRuntimeProfile(RuntimeProfile runtimeProfile, boolean isDataPlane) {
+        runtimeSettings = runtimeProfile.getSettings(isDataPlane);
+        runtimeSettings.getEnvironment().forEach(this::addEnvironmentVariable);
+        return this;
+    }
+
+    // Runs the process with the given nice value and CPU affinity, null for the app's own.
+    Process setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+        this.schedulingPolicy = schedulingPolicy;
+        return this;
+    }
+
     public Process addArgument(String... args) {
         arguments.addAll(Arrays.asList(args));
         return this;
@@ -107,9 +172,11 @@ public class Process {
     }
 
     private ProcessBuilder build() {
-        ArrayList<String> command = new ArrayList<>();
+        List<String> command = new ArrayList<>();
         command.add(nativeLibraryDir + "/" + binaryPath);
         command.addAll(arguments);
+        if (schedulingPolicy != null)
+            command = schedulingPolicy.wrap(command);
 
         storage.createDirectory(WORKING_DIRECTORY_PATH);
         ProcessBuilder processBuilder = new ProcessBuilder()
@@ -127,7 +194,7 @@ public class Process {
         //noinspection SimplifyStreamApiCallChains
         String invocation = String.format("%s %s", env,
                 processBuilder.command().stream().collect(Collectors.joining(" "))).trim();
-        timber().i(invocation);
+        logger().i(invocation);
         return processBuilder;
     }
 
@@ -146,6 +213,7 @@ public class Process {
         if (process == null)
             ret = -1;
         else {
+            int pid = addPid(process);
             // this should create a separate thread that is only used to consume each line of the
             // process' stdout/stderr stream (see Logger.LogThread)
             if (logThread != null)
@@ -155,13 +223,17 @@ public class Process {
             try {
                 ret = process.waitFor();
             } catch (InterruptedException ignored) {
-                timber().i("thread was interrupted, stopping SCION process");
+                logger().i("thread was interrupted, stopping SCION process");
                 process.destroy();
                 ret = -1;
+                // preserve the interrupt, so callers that run processes in a loop stop as well
+                Thread.currentThread().interrupt();
+            } finally {
+                removePid(pid);
             }
         }
 
-        timber().i("SCION process exited with %s", ret);
+        logger().i("SCION process exited with %s", ret);
     }
 
     public interface InputStreamHandler {
@@ -181,6 +253,7 @@ public class Process {
         if (process == null)
             ret = -1;
         else {
+            int pid = addPid(process);
             // this should create a separate thread that is only used to consume each line of the
             // process' stdout/stderr stream (see Logger.LogThread)
             streamHandler.handle(process.getInputStream());
@@ -191,12 +264,16 @@ public class Process {
             try {
                 ret = process.waitFor();
             } catch (InterruptedException ignored) {
-                timber().i("thread was interrupted, stopping SCION process");
+                logger().i("thread was interrupted, stopping SCION process");
                 process.destroy();
                 ret = -1;
+                // preserve the interrupt, so callers that run processes in a loop stop as well
+                Thread.currentThread().interrupt();
+            } finally {
+                removePid(pid);
             }
         }
 
-        timber().i("SCION process exited with %s", ret);
+        logger().i("SCION process exited with %s", ret);
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.scionlab.scion.as.Config.Logger.*;
+
+/**
+ * Changes the log level inside running SCION processes through the HTTP endpoint they serve
+ * next to their Prometheus endpoint, so lines that Logger.Tree would drop anyway are not
+ * produced, piped and parsed in the first place. Processes start with the level from their
+ * configuration, which is needed to detect readiness (see Component#setReady).
+ */
+class ProcessLogLevel {
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, ProcessLogLevel.class.getSimpleName());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // maps the log levels used by the app to the levels understood by SCION processes
+    static String toProcessLogLevel(Logger.LogLevel logLevel) {
+        switch (logLevel) {
+            case TRACE:
+            case DEBUG:
+                return "debug";
+            case INFO:
+                return "info";
+            case WARN:
+                return "warn";
+            default:
+                return "error";
+        }
+    }
+
+    // Changes the log level of the process with the given endpoint in the background. Requests
+    // are sent in order, so the last requested level wins.
+    static void set(String tag, String address, Logger.LogLevel logLevel) {
+        executor.execute(() -> {
+            try {
+                put(address, logLevel);
+                Logger.tag(tag).i("log level set to %s", toProcessLogLevel(logLevel));
+            } catch (IOException e) {
+                Logger.tag(tag).w("could not set log level: %s", e.getMessage());
+            }
+        });
+    }
+
+    static void put(String address, Logger.LogLevel logLevel) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://" + address + PROCESS_LOG_LEVEL_PATH).openConnection();
+        connection.setConnectTimeout(PROCESS_LOG_LEVEL_TIMEOUT);
+        connection.setReadTimeout(PROCESS_LOG_LEVEL_TIMEOUT);
+        try {
+            connection.setRequestMethod("PUT");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setDoOutput(true);
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(String.format("{\"level\":\"%s\"}", toProcessLogLevel(logLevel))
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK)
+                throw new IOException("unexpected response " + connection.getResponseCode());
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
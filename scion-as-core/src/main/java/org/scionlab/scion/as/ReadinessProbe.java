@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.util.function.BooleanSupplier;
+
+import static org.scionlab.scion.as.Config.ReadinessProbe.*;
+
+/**
+ * Checks whether a starting component is ready without waiting for it to log a specific line,
+ * e.g., by connecting to a port it serves on. Log patterns (see Logger.LogThread#watchFor) are
+ * still watched as a fallback, whichever signal comes first marks the component READY.
+ */
+abstract class ReadinessProbe {
+    private final String description;
+
+    private ReadinessProbe(String description) {
+        this.description = description;
+    }
+
+    abstract boolean isReady();
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    private static ReadinessProbe of(String description, BooleanSupplier isReady) {
+        return new ReadinessProbe(description) {
+            @Override
+            boolean isReady() {
+                return isReady.getAsBoolean();
+            }
+        };
+    }
+
+    // ready when a connection to the given Unix domain socket is accepted (see Platform#canConnect)
+    static ReadinessProbe unixSocket(Storage storage, String path) {
+        return of("unix socket " + path, () -> storage.canConnect(path));
+    }
+
+    // ready when a TCP connection to the given address (host:port) is accepted
+    static ReadinessProbe tcp(String address) {
+        return of("tcp " + address, () -> {
+            int colon = address.lastIndexOf(':');
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(address.substring(0, colon),
+                        Integer.parseInt(address.substring(colon + 1))), TIMEOUT);
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        });
+    }
+
+    // ready when the Prometheus endpoint at the given address (host:port) responds successfully
+    static ReadinessProbe metrics(String address) {
+        return of("metrics " + address, () -> {
+            HttpURLConnection connection = null;
+            try {
+                connection = (HttpURLConnection) new URL("http://" + address + Config.MetricsScraper.METRICS_PATH).openConnection();
+                connection.setConnectTimeout(TIMEOUT);
+                connection.setReadTimeout(TIMEOUT);
+                return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+            } catch (IOException e) {
+                return false;
+            } finally {
+                if (connection != null)
+                    connection.disconnect();
+            }
+        });
+    }
+}
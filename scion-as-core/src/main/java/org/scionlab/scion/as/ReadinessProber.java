@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.scionlab.scion.as.Config.ReadinessProbe.*;
+
+/**
+ * Runs the readiness probes of a starting component until one succeeds or the component
+ * stops. The probes of all components share a single thread, and the interval between two
+ * rounds doubles up to a maximum, so slowly starting components are not probed needlessly often.
+ */
+class ReadinessProber {
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, ReadinessProber.class.getSimpleName());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Component component;
+    private final ReadinessProbe[] probes;
+    private long interval = INITIAL_INTERVAL;
+    private volatile boolean isCancelled = false;
+
+    private ReadinessProber(Component component, ReadinessProbe[] probes) {
+        this.component = component;
+        this.probes = probes;
+    }
+
+    static ReadinessProber start(Component component, ReadinessProbe[] probes) {
+        ReadinessProber readinessProber = new ReadinessProber(component, probes);
+        if (probes.length > 0)
+            readinessProber.schedule();
+        return readinessProber;
+    }
+
+    void cancel() {
+        isCancelled = true;
+    }
+
+    private void schedule() {
+        scheduler.schedule(this::probe, interval, TimeUnit.MILLISECONDS);
+        interval = Math.min(interval * 2, MAX_INTERVAL);
+    }
+
+    private void probe() {
+        if (isCancelled || component.getState() != Component.State.STARTING)
+            return;
+        for (ReadinessProbe probe : probes)
+            if (probe.isReady()) {
+                if (isCancelled)
+                    return;
+                component.logger().i("%s reports ready", probe);
+                component.setReady();
+                return;
+            }
+        schedule();
+    }
+}
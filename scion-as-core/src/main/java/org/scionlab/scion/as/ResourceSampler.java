@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.scionlab.scion.as.Config.ResourceSampler.*;
+
+/**
+ * Samples the CPU and memory usage of the SCION processes (from /proc) along with their Go
+ * runtime settings, the echo RTT and loss, and the border router throughput into the
+ * time-series store, so the dashboard can plot them next to the scraped metrics. Is called
+ * by the metrics scraper after every scrape.
+ */
+class ResourceSampler {
+    private final TimeSeriesStore timeSeriesStore;
+    private final Map<Integer, Long> cpuTicks = new HashMap<>();
+    private final Map<String, TimeSeriesStore.Series> cpuSeries = new HashMap<>(), rssSeries = new HashMap<>(),
+            maxProcsSeries = new HashMap<>(), memoryLimitSeries = new HashMap<>(),
+            rttSeries = new HashMap<>(), lossSeries = new HashMap<>();
+    private TimeSeriesStore.Series inputThroughputSeries, outputThroughputSeries;
+    private long lastTime = -1;
+    private double lastInputBytes = Double.NaN, lastOutputBytes = Double.NaN;
+
+    ResourceSampler(TimeSeriesStore timeSeriesStore) {
+        this.timeSeriesStore = timeSeriesStore;
+    }
+
+    private TimeSeriesStore.Series getSeries(Map<String, TimeSeriesStore.Series> series, String metric,
+                                             String labelName, String labelValue) {
+        TimeSeriesStore.Series _series = series.get(labelValue);
+        if (_series == null) {
+            _series = timeSeriesStore.getOrCreate(GROUP, metric + Metrics.labels(labelName, labelValue));
+            if (_series != null)
+                series.put(labelValue, _series);
+        }
+        return _series;
+    }
+
+    private static void add(TimeSeriesStore.Series series, long time, double value) {
+        if (series != null && !Double.isNaN(value))
+            series.add(time, value);
+    }
+
+    // Returns the user and system CPU time (in clock ticks) of a process, or -1.
+    private static long readCpuTicks(int pid) {
+        try (BufferedReader br = new BufferedReader(new FileReader(String.format(PROC_STAT_PATH, pid)))) {
+            String line = br.readLine();
+            // the command name may contain spaces, so start after its closing parenthesis
+            String[] fields = line.substring(line.lastIndexOf(')') + 2).split(" ");
+            return Long.parseLong(fields[UTIME_FIELD]) + Long.parseLong(fields[STIME_FIELD]);
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    // Returns the resident set size (in bytes) of a process, or -1.
+    private static long readRss(int pid) {
+        try (BufferedReader br = new BufferedReader(new FileReader(String.format(PROC_STATUS_PATH, pid)))) {
+            for (String line = br.readLine(); line != null; line = br.readLine())
+                if (line.startsWith(RSS_FIELD))
+                    return Long.parseLong(line.substring(RSS_FIELD.length()).replace("kB", "").trim()) * 1024;
+            return -1;
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private void sampleProcesses(long time, double interval) {
+        Set<Integer> seenPids = new HashSet<>();
+        for (String tag : Process.getTagsWithPids()) {
+            long ticks = 0, rss = 0;
+            for (int pid : Process.getPids(tag)) {
+                long _ticks = readCpuTicks(pid), _rss = readRss(pid);
+                if (_ticks < 0 || _rss < 0)
+                    continue;
+                Long lastTicks = cpuTicks.put(pid, _ticks);
+                // the first sample of a process only serves as a baseline
+                ticks += lastTicks == null ? 0 : _ticks - lastTicks;
+                rss += _rss;
+                seenPids.add(pid);
+            }
+            add(getSeries(cpuSeries, CPU_METRIC, "component", tag), time,
+                    interval > 0 ? 100.0 * ticks / CLOCK_TICKS_PER_SECOND / interval : Double.NaN);
+            add(getSeries(rssSeries, RSS_METRIC, "component", tag), time, rss);
+            // plotted next to CPU and memory usage to show the effect of the runtime profile
+            RuntimeProfile.Settings runtimeSettings = Process.getRuntimeSettings(tag);
+            if (runtimeSettings != null) {
+                add(getSeries(maxProcsSeries, MAX_PROCS_METRIC, "component", tag), time,
+                        runtimeSettings.getMaxProcs());
+                if (runtimeSettings.getMemoryLimit() > 0)
+                    add(getSeries(memoryLimitSeries, MEMORY_LIMIT_METRIC, "component", tag), time,
+                            runtimeSettings.getMemoryLimit());
+            }
+        }
+        cpuTicks.keySet().retainAll(seenPids);
+    }
+
+    private void samplePing(long time, Map<String, RttRecorder.Statistics> pingStatistics) {
+        for (Map.Entry<String, RttRecorder.Statistics> e : pingStatistics.entrySet()) {
+            RttRecorder.Statistics statistics = e.getValue();
+            if (statistics.getCount() > 0)
+                add(getSeries(rttSeries, RTT_METRIC, "destination", e.getKey()), time, statistics.getP50());
+            add(getSeries(lossSeries, LOSS_METRIC, "destination", e.getKey()), time, statistics.getLossRate());
+        }
+    }
+
+    // Sums the most recent values of the border router's counters with the given name,
+    // returns NaN if they were not scraped at the given time.
+    private double sumRouterCounter(String metric, long time) {
+        double[] sum = {0, 0};
+        timeSeriesStore.forEach(series -> {
+            TimeSeriesStore.Ring ring = series.getRing(TimeSeriesStore.Resolution.RAW);
+            String key = series.getKey();
+            if (series.getGroup().equals(BorderRouter.class.getSimpleName()) &&
+                    key.startsWith(metric) && (key.length() == metric.length() || key.charAt(metric.length()) == '{') &&
+                    Math.abs(ring.getLastTime() - time) < 1000) {
+                sum[0] += ring.getLastValue();
+                sum[1]++;
+            }
+        });
+        return sum[1] > 0 ? sum[0] : Double.NaN;
+    }
+
+    private void sampleThroughput(long time, double interval) {
+        double inputBytes = sumRouterCounter(ROUTER_INPUT_BYTES_METRIC, time),
+                outputBytes = sumRouterCounter(ROUTER_OUTPUT_BYTES_METRIC, time);
+        if (inputThroughputSeries == null)
+            inputThroughputSeries = timeSeriesStore.getOrCreate(GROUP, THROUGHPUT_METRIC + Metrics.labels("direction", "input"));
+        if (outputThroughputSeries == null)
+            outputThroughputSeries = timeSeriesStore.getOrCreate(GROUP, THROUGHPUT_METRIC + Metrics.labels("direction", "output"));
+        // counters may be reset when the border router restarts, skip those samples
+        if (interval > 0 && inputBytes >= lastInputBytes)
+            add(inputThroughputSeries, time, (inputBytes - lastInputBytes) / interval);
+        if (interval > 0 && outputBytes >= lastOutputBytes)
+            add(outputThroughputSeries, time, (outputBytes - lastOutputBytes) / interval);
+        lastInputBytes = inputBytes;
+        lastOutputBytes = outputBytes;
+    }
+
+    void sample(long time, Map<String, RttRecorder.Statistics> pingStatistics) {
+        double interval = lastTime < 0 ? Double.NaN : (time - lastTime) / 1000.0;
+        sampleProcesses(time, interval);
+        samplePing(time, pingStatistics);
+        sampleThroughput(time, interval);
+        lastTime = time;
+    }
+}
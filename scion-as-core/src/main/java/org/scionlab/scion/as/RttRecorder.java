@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.scionlab.scion.as.Config.Scmp.*;
+
+/**
+ * Records round-trip times and sequence numbers of echo replies into log-linear histograms
+ * (similar to HdrHistogram, with a relative error of about 3%). Time is divided into slots,
+ * so quantiles, jitter and loss can be computed over a sliding window of recent slots.
+ * Recording is lock-free and intended for a single writer (the thread that parses the echo
+ * output), while any number of threads may read statistics concurrently.
+ */
+public class RttRecorder {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int BUCKETS = index(MAX_RTT) + 1;
+    private static final long ORIGIN = System.nanoTime(); // keeps slot epochs positive
+
+    private final Slot[] slots = new Slot[RTT_SLOTS];
+    private long lastSequence = -1, lastRtt = -1;
+    private volatile long lastReceived = -1;
+
+    private static class Slot {
+        private final AtomicLong epoch = new AtomicLong(-1);
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong received = new AtomicLong(), lost = new AtomicLong(), max = new AtomicLong(),
+                jitterSum = new AtomicLong(), jitterCount = new AtomicLong();
+
+        // Invalidates the slot before clearing it, so readers skip it while it is being reused.
+        private void reset(long newEpoch) {
+            epoch.set(-1);
+            for (int i = 0; i < BUCKETS; i++)
+                counts.set(i, 0);
+            received.set(0);
+            lost.set(0);
+            max.set(0);
+            jitterSum.set(0);
+            jitterCount.set(0);
+            epoch.set(newEpoch);
+        }
+    }
+
+    public static class Statistics {
+        private final long count;
+        private final double p50, p90, p99, max, jitter, lossRate;
+
+        private Statistics(long count, double p50, double p90, double p99, double max, double jitter, double lossRate) {
+            this.count = count;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+            this.jitter = jitter;
+            this.lossRate = lossRate;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        // all durations are given in milliseconds
+        public double getP50() {
+            return p50;
+        }
+
+        public double getP90() {
+            return p90;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getJitter() {
+            return jitter;
+        }
+
+        // fraction of echo requests without reply, between 0 and 1
+        public double getLossRate() {
+            return lossRate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms jitter=%.1fms loss=%.1f%%",
+                    p50, p90, p99, max, jitter, lossRate * 100);
+        }
+    }
+
+    RttRecorder() {
+        for (int i = 0; i < slots.length; i++)
+            slots[i] = new Slot();
+    }
+
+    // maps a value (in microseconds) to its histogram bucket, values below SUB_BUCKETS are exact
+    private static int index(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) Math.max(value, 0);
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        return (shift + 1) * HALF_SUB_BUCKETS + (int) (value >> shift) - HALF_SUB_BUCKETS;
+    }
+
+    // returns the value in the middle of the given histogram bucket
+    private static long valueOf(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+        int shift = index / HALF_SUB_BUCKETS - 1;
+        long lowerBound = (long) (index % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) / 2;
+    }
+
+    private static long now() {
+        return (System.nanoTime() - ORIGIN) / 1000000;
+    }
+
+    private Slot currentSlot(long now) {
+        long epoch = now / RTT_SLOT_INTERVAL;
+        Slot slot = slots[(int) (epoch % slots.length)];
+        if (slot.epoch.get() != epoch)
+            slot.reset(epoch);
+        return slot;
+    }
+
+    // Records an echo reply with the given sequence number and round-trip time (in microseconds).
+    void record(long sequence, long rtt) {
+        long now = now();
+        Slot slot = currentSlot(now);
+        rtt = Math.min(Math.max(rtt, 0), MAX_RTT);
+        slot.counts.incrementAndGet(index(rtt));
+        slot.received.incrementAndGet();
+        if (rtt > slot.max.get())
+            slot.max.set(rtt);
+
+        if (lastSequence >= 0 && sequence > lastSequence + 1)
+            slot.lost.addAndGet(sequence - lastSequence - 1);
+        else if (sequence < lastSequence)
+            slot.lost.decrementAndGet(); // a reply we already counted as lost arrived late
+        if (lastRtt >= 0) {
+            slot.jitterSum.addAndGet(Math.abs(rtt - lastRtt));
+            slot.jitterCount.incrementAndGet();
+        }
+
+        lastSequence = Math.max(sequence, lastSequence);
+        lastRtt = rtt;
+        lastReceived = now;
+    }
+
+    // Milliseconds since the last reply was received, or -1 if there was none yet.
+    long getTimeSinceLastReceived() {
+        long lastReceived = this.lastReceived;
+        return lastReceived < 0 ? -1 : now() - lastReceived;
+    }
+
+    public Statistics getStatistics() {
+        return getStatistics(STATISTICS_WINDOW);
+    }
+
+    // Computes statistics over the slots that overlap the last window milliseconds.
+    public Statistics getStatistics(long window) {
+        long now = now();
+        long currentEpoch = now / RTT_SLOT_INTERVAL;
+        long oldestEpoch = currentEpoch - Math.min(window / RTT_SLOT_INTERVAL, slots.length - 1);
+        long[] counts = new long[BUCKETS], slotCounts = new long[BUCKETS]; // slotCounts is overwritten for each slot
+        long received = 0, lost = 0, max = 0, jitterSum = 0, jitterCount = 0;
+
+        for (Slot slot : slots) {
+            long epoch = slot.epoch.get();
+            if (epoch < oldestEpoch || epoch > currentEpoch)
+                continue;
+            for (int i = 0; i < BUCKETS; i++)
+                slotCounts[i] = slot.counts.get(i);
+            long slotReceived = slot.received.get(), slotLost = slot.lost.get(), slotMax = slot.max.get(),
+                    slotJitterSum = slot.jitterSum.get(), slotJitterCount = slot.jitterCount.get();
+            if (slot.epoch.get() != epoch)
+                continue; // slot was reused while reading it
+            for (int i = 0; i < BUCKETS; i++)
+                counts[i] += slotCounts[i];
+            received += slotReceived;
+            lost += slotLost;
+            max = Math.max(max, slotMax);
+            jitterSum += slotJitterSum;
+            jitterCount += slotJitterCount;
+        }
+
+        // requests sent after the last reply are not visible as sequence gaps yet
+        long timeSinceLastReceived = getTimeSinceLastReceived();
+        if (timeSinceLastReceived > PING_INTERVAL)
+            lost += Math.min(timeSinceLastReceived - PING_INTERVAL, window) / PING_INTERVAL;
+        lost = Math.max(lost, 0);
+
+        double maxRtt = max / 1000.0;
+        return new Statistics(received,
+                Math.min(quantile(counts, received, 0.5), maxRtt),
+                Math.min(quantile(counts, received, 0.9), maxRtt),
+                Math.min(quantile(counts, received, 0.99), maxRtt),
+                maxRtt,
+                jitterCount == 0 ? 0 : jitterSum / (double) jitterCount / 1000.0,
+                received + lost == 0 ? 0 : lost / (double) (received + lost));
+    }
+
+    private static double quantile(long[] counts, long total, double quantile) {
+        if (total == 0)
+            return 0;
+        long rank = (long) Math.ceil(quantile * total), seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return valueOf(i) / 1000.0;
+        }
+        return valueOf(counts.length - 1) / 1000.0;
+    }
+}
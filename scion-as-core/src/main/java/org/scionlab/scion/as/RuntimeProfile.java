@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.scionlab.scion.as.Config.GoRuntime.*;
+
+/**
+ * Presets for the Go runtime of the SCION processes, which otherwise sizes itself as if it owned
+ * the whole phone. Each preset uses a share of the cores and of the available memory, data plane
+ * components (border router, dispatcher) get more cores than control plane components.
+ */
+public enum RuntimeProfile {
+    LOW_MEMORY(0.25, 50, 0.02),
+    BALANCED(0.5, 100, 0.05),
+    THROUGHPUT(1, 200, 0.1);
+
+    private final double cpuShare;
+    private final int gcPercent;
+    private final double memoryShare;
+
+    RuntimeProfile(double cpuShare, int gcPercent, double memoryShare) {
+        this.cpuShare = cpuShare;
+        this.gcPercent = gcPercent;
+        this.memoryShare = memoryShare;
+    }
+
+    // Go runtime settings of a single process, derived from a profile.
+    static class Settings {
+        private final int maxProcs, gcPercent;
+        private final long memoryLimit;
+
+        private Settings(int maxProcs, int gcPercent, long memoryLimit) {
+            this.maxProcs = maxProcs;
+            this.gcPercent = gcPercent;
+            this.memoryLimit = memoryLimit;
+        }
+
+        int getMaxProcs() {
+            return maxProcs;
+        }
+
+        int getGcPercent() {
+            return gcPercent;
+        }
+
+        // in bytes, -1 if the available memory is unknown
+        long getMemoryLimit() {
+            return memoryLimit;
+        }
+
+        Map<String, String> getEnvironment() {
+            Map<String, String> environment = new LinkedHashMap<>();
+            environment.put(MAX_PROCS_ENV, String.valueOf(maxProcs));
+            environment.put(GC_PERCENT_ENV, String.valueOf(gcPercent));
+            if (memoryLimit > 0)
+                environment.put(MEMORY_LIMIT_ENV, String.format("%dMiB", memoryLimit / 1024 / 1024));
+            return environment;
+        }
+    }
+
+    // Returns the memory (in bytes) available for new processes, or -1.
+    private static long readAvailableMemory() {
+        try (BufferedReader br = new BufferedReader(new FileReader(PROC_MEMINFO_PATH))) {
+            for (String line = br.readLine(); line != null; line = br.readLine())
+                if (line.startsWith(MEM_AVAILABLE_FIELD))
+                    return Long.parseLong(line.substring(MEM_AVAILABLE_FIELD.length()).replace("kB", "").trim()) * 1024;
+            return -1;
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    Settings getSettings(boolean isDataPlane, int cores, long availableMemory) {
+        int maxProcs = (int) Math.max(1, Math.round(cores * cpuShare * (isDataPlane ? 1 : CONTROL_PLANE_CPU_SHARE)));
+        long memoryLimit = availableMemory < 0 ? -1 : Math.max(MIN_MEMORY_LIMIT, (long) (availableMemory * memoryShare));
+        return new Settings(maxProcs, gcPercent, memoryLimit);
+    }
+
+    // Settings for a process that is started now, based on the cores and memory of this device.
+    Settings getSettings(boolean isDataPlane) {
+        return getSettings(isDataPlane, Runtime.getRuntime().availableProcessors(), readAvailableMemory());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.stream.Collectors;
+
+import static org.scionlab.scion.as.Config.Process.*;
+
+/**
+ * Nice value and CPU affinity of a SCION process. They are applied by a shell that replaces itself
+ * with the SCION binary, using taskset and renice (from toybox on Android, util-linux elsewhere). As
+ * apps may not raise their priority, processes are favored by lowering the priority of the others.
+ */
+class SchedulingPolicy {
+    private static Map<Cores, String> cpuLists;
+    private final int nice;
+    private final Cores cores;
+
+    enum Cores {
+        ALL, BIG, LITTLE
+    }
+
+    SchedulingPolicy(int nice, Cores cores) {
+        this.nice = nice;
+        this.cores = cores;
+    }
+
+    private static long readMaxFrequency(File cpuDirectory) {
+        try (BufferedReader br = new BufferedReader(new FileReader(new File(cpuDirectory, CPU_MAX_FREQUENCY_PATH)))) {
+            return Long.parseLong(br.readLine().trim());
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    // Little cores are the slowest ones, big cores all others. On devices whose cores are
+    // alike (or whose frequencies are unknown), processes may run on all cores.
+    static Map<Cores, String> detectCpuLists(File cpuDirectory) {
+        Map<Integer, Long> maxFrequencies = new TreeMap<>();
+        File[] files = cpuDirectory.listFiles();
+        for (File file : files == null ? new File[]{} : files) {
+            Matcher matcher = CPU_PATTERN.matcher(file.getName());
+            long maxFrequency = matcher.matches() ? readMaxFrequency(file) : -1;
+            if (maxFrequency > 0)
+                maxFrequencies.put(Integer.parseInt(matcher.group(1)), maxFrequency);
+        }
+
+        Map<Cores, String> cpuLists = new EnumMap<>(Cores.class);
+        if (maxFrequencies.isEmpty())
+            return cpuLists;
+        long minFrequency = Collections.min(maxFrequencies.values());
+        if (minFrequency == Collections.max(maxFrequencies.values()))
+            return cpuLists;
+        cpuLists.put(Cores.BIG, maxFrequencies.entrySet().stream()
+                .filter(e -> e.getValue() > minFrequency)
+                .map(e -> String.valueOf(e.getKey()))
+                .collect(Collectors.joining(",")));
+        cpuLists.put(Cores.LITTLE, maxFrequencies.entrySet().stream()
+                .filter(e -> e.getValue() == minFrequency)
+                .map(e -> String.valueOf(e.getKey()))
+                .collect(Collectors.joining(",")));
+        return cpuLists;
+    }
+
+    // Returns the cores (in taskset's list format) for the given kind, or null for all cores.
+    private static synchronized String getCpuList(Cores cores) {
+        if (cpuLists == null) {
+            cpuLists = detectCpuLists(new File(CPU_DIRECTORY_PATH));
+            if (!cpuLists.isEmpty())
+                Logger.i("big cores are %s, little cores are %s", cpuLists.get(Cores.BIG), cpuLists.get(Cores.LITTLE));
+        }
+        return cpuLists.get(cores);
+    }
+
+    // Returns the command that runs the given command with this policy.
+    List<String> wrap(List<String> command) {
+        String cpuList = getCpuList(cores);
+        if (nice == 0 && cpuList == null)
+            return command;
+        List<String> wrappedCommand = new ArrayList<>(Arrays.asList(
+                LAUNCHER_SHELL, "-c", LAUNCHER_SCRIPT, LAUNCHER_SHELL, cpuList == null ? "" : cpuList, String.valueOf(nice)));
+        wrappedCommand.addAll(command);
+        return wrappedCommand;
+    }
+}
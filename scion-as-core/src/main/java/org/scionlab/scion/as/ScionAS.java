@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.scionlab.scion.as.Config.Scmp.BINARY_FLAG;
+import static org.scionlab.scion.as.Config.Logger.DELETE_PATTERN;
+import static org.scionlab.scion.as.Config.Logger.UPDATE_INTERVAL;
+import static org.scionlab.scion.as.Config.Scion.*;
+
+/**
+ * Runs a SCION AS (= autonomous system) by starting all its components.
+ */
+public class ScionAS {
+    private final Platform platform;
+    protected final Storage storage;
+    private final ComponentRegistry componentRegistry;
+    private Scmp scmp;
+    private Topology topology;
+    private PathMonitor pathMonitor;
+    private final PathCache pathCache = new PathCache();
+    private final TimeSeriesStore timeSeriesStore = new TimeSeriesStore();
+    private volatile long handoverStart = -1;
+    private volatile boolean isStopping;
+
+    public enum State {
+        STOPPED, STARTING, HEALTHY, UNHEALTHY;
+
+        public String toString() {
+            return this == STOPPED ? "Stopped" :
+                    this == STARTING ? "Starting" :
+                            this == HEALTHY ? "Healthy" :
+                                    "Unhealthy";
+        }
+    }
+
+    public enum Version {
+        SCIONLAB(SCIONLAB_BINARY_PATH);
+
+        private String binaryPath;
+
+        Version(String binaryPath) {
+            this.binaryPath = binaryPath;
+        }
+
+        public String getBinaryPath() {
+            return binaryPath;
+        }
+
+        public String getScionVersion(Storage storage) {
+            AtomicReference<String> version = new AtomicReference<>();
+            Process.from(binaryPath, "version", storage, new Logger.LogThread(
+                    version::set, DELETE_PATTERN, UPDATE_INTERVAL, null))
+                    .addArgument(BINARY_FLAG).addArgument(VERSION_FLAG).run();
+            String _version = version.get();
+            if (_version != null) {
+                if (!_version.contains("Scion version:"))
+                    _version = null;
+                else
+                    _version = _version
+                            .replaceFirst("^.*Scion version: ", "")
+                            .replaceFirst("-dirty", "");
+            }
+            return _version;
+        }
+    }
+
+    ScionAS(Platform platform, BiConsumer<State, Map<String, State>> stateCallback) {
+        this.platform = platform;
+        Process.initialize(platform);
+        storage = Storage.from(platform);
+        componentRegistry = new ComponentRegistry(platform, storage,
+                (Map<String, State> componentState) -> {
+                    State state = getState();
+                    checkHandover(state);
+                    checkHealth(state);
+                    stateCallback.accept(state, componentState);
+                });
+    }
+
+    public void start(Version version, String genDirectory, String vpnConfigFile, String pingAddress) {
+        if (configure(genDirectory))
+            startComponents(version, vpnConfigFile == null ? null : storage.readFile(new File(vpnConfigFile)), pingAddress);
+    }
+
+    // Writes the SCION configuration based on the given gen directory and returns whether it is valid.
+    @SuppressWarnings("OptionalGetWithoutIsPresent")
+    boolean configure(String genDirectory) {
+        Logger.i("writing SCION configuration");
+        if (storage.countFilesInDirectory(new File(genDirectory)) > GEN_DIRECTORY_FILE_LIMIT) {
+            Logger.e("too many files in gen directory, did you choose the right directory?");
+            return false;
+        }
+        storage.deleteFileOrDirectory(GEN_DIRECTORY_PATH);
+        storage.copyFileOrDirectory(new File(genDirectory), GEN_DIRECTORY_PATH);
+        Optional<String> certsPath = storage.findInDirectory(GEN_DIRECTORY_PATH, CERTS_DIRECTORY_PATH_REGEX);
+        Optional<String> keysPath = storage.findInDirectory(GEN_DIRECTORY_PATH, KEYS_DIRECTORY_PATH_REGEX);
+        Optional<String> cryptoPath = storage.findInDirectory(GEN_DIRECTORY_PATH, CRYPTO_DIRECTORY_PATH_REGEX);
+        Optional<String> topologyPath = storage.findInDirectory(GEN_DIRECTORY_PATH, TOPOLOGY_PATH_REGEX);
+
+        if (!Stream.of(certsPath, keysPath, topologyPath)
+                .allMatch(Optional::isPresent)) {
+            Logger.e("unexpected gen directory structure");
+            return false;
+        }
+
+        storage.deleteFileOrDirectory(CONFIG_DIRECTORY_PATH);
+        storage.createDirectory(CONFIG_DIRECTORY_PATH);
+        storage.copyFileOrDirectory(certsPath.get(), CERTS_DIRECTORY_PATH);
+        storage.copyFileOrDirectory(keysPath.get(), KEYS_DIRECTORY_PATH);
+        storage.copyFileOrDirectory(cryptoPath.get(), CRYPTO_DIRECTORY_PATH);
+        if (!writeTopology(topologyPath.get()))
+            return false;
+        storage.deleteFileOrDirectory(GEN_DIRECTORY_PATH);
+        return true;
+    }
+
+    // Starts all components with the written configuration, the VPN configuration is null if no VPN is needed.
+    void startComponents(Version version, String vpnConfig, String pingAddress) {
+        Logger.i("starting SCION AS");
+        isStopping = false;
+        componentRegistry
+                .setBinaryPath(version.getBinaryPath())
+                .start(platform.createVPNClient(vpnConfig))
+                .start(new BorderRouter())
+                .start(new ControlServer())
+                .start(new Daemon())
+                .start(scmp = new Scmp(Scmp.parseRemoteAddresses(pingAddress)))
+                .start(pathMonitor = new PathMonitor(pathCache, Scmp.parseRemoteAddresses(pingAddress)))
+                .start(new MetricsScraper(timeSeriesStore, MetricsScraper.getComponentEndpoints()))
+                .start(new MetricsServer(componentRegistry.getMetrics()))
+                .start(new Dispatcher())
+                .notifyStateChange();
+    }
+
+    // Tunes the Go runtime of SCION processes that are started afterwards (see RuntimeProfile).
+    public void setRuntimeProfile(RuntimeProfile runtimeProfile) {
+        componentRegistry.setRuntimeProfile(runtimeProfile);
+    }
+
+    // Switches to another power profile and restarts only the components whose configuration
+    // changes with it (e.g., the control server for other beaconing intervals). Blocks until
+    // they are ready again, so this should not be called from the main thread.
+    public void setPowerProfile(PowerProfile powerProfile) {
+        if (componentRegistry.getPowerProfile() == powerProfile)
+            return;
+        Logger.i("switching to power profile %s", powerProfile);
+        componentRegistry.setPowerProfile(powerProfile);
+        Class[] outdated = componentRegistry.getOutdatedComponents();
+        if (outdated.length == 0)
+            return;
+        String components = Stream.of(outdated).map(Class::getSimpleName).collect(Collectors.joining(", "));
+        Logger.i("restarting %s to apply power profile", components);
+        if (!componentRegistry.restart(outdated))
+            Logger.e("%s did not become ready after changing the power profile", components);
+    }
+
+    // Changes the log level inside the SCION processes, e.g., to save the work of producing and
+    // parsing lines no one looks at (see Config.Logger.BACKGROUND_LOG_LEVEL).
+    public void setProcessLogLevel(Logger.LogLevel logLevel) {
+        componentRegistry.setProcessLogLevel(logLevel);
+    }
+
+    public void stop() {
+        Logger.i("stopping SCION AS");
+        handoverStart = -1;
+        isStopping = true;
+        componentRegistry.stopAll().notifyStateChange();
+        componentRegistry.setUnhealthy(false);
+        scmp = null;
+        pathMonitor = null;
+    }
+
+    // Restarts only the components bound to the underlay network (i.e., the VPN client and the
+    // border router) after a network change, so the dispatcher, daemon and control server keep their state.
+    public void handleNetworkChange() {
+        if (getState() == State.STOPPED)
+            return;
+        Logger.i("underlying network changed, restarting VPN client and border router");
+        handoverStart = System.nanoTime();
+        Metrics.getInstance().countHandover();
+        if (!componentRegistry.restart(VPNClient.class, BorderRouter.class))
+            Logger.e("VPN client and border router did not become ready after network change");
+    }
+
+    private void checkHandover(State state) {
+        long handoverStart = this.handoverStart;
+        // only count once the restarted components are back, the AS may still look healthy while they stop
+        if (handoverStart < 0 || state != State.HEALTHY || componentRegistry.isRestarting(VPNClient.class, BorderRouter.class))
+            return;
+        this.handoverStart = -1;
+        long timeToHealthy = (System.nanoTime() - handoverStart) / 1000000;
+        Logger.i("healthy again %d ms after network change", timeToHealthy);
+        Metrics.getInstance().setHandoverTimeToHealthy(timeToHealthy / 1000.0);
+    }
+
+    // A component may stop (e.g., crash) while the AS is still healthy otherwise. The AS only counts as
+    // recovered once it is healthy again, and it looks unhealthy while it is being stopped.
+    private void checkHealth(State state) {
+        if (isStopping || state == State.STARTING)
+            return;
+        componentRegistry.setUnhealthy(state == State.UNHEALTHY ||
+                state == State.HEALTHY && componentRegistry.hasComponentsWithState(Component.State.STOPPED));
+    }
+
+    public State getState() {
+        if (!componentRegistry.hasRegisteredComponents())
+            return State.STOPPED;
+        if (componentRegistry.hasComponentsWithState(Component.State.STARTING) &&
+            !componentRegistry.hasComponentsWithState(Component.State.STOPPED))
+            return State.STARTING;
+        if (scmp != null && scmp.isHealthy())
+            return State.HEALTHY;
+        return State.UNHEALTHY;
+    }
+
+    // Returns RTT and loss statistics for every pinged address (empty if the AS is not running).
+    public Map<String, RttRecorder.Statistics> getPingStatistics() {
+        Scmp scmp = this.scmp;
+        return scmp == null ? Collections.emptyMap() : scmp.getStatistics();
+    }
+
+    // Changes the pinged addresses (separated by whitespace or semicolons) without restarting any component.
+    public void setPingAddress(String pingAddress) {
+        Scmp scmp = this.scmp;
+        if (scmp != null)
+            scmp.setRemoteAddresses(Scmp.parseRemoteAddresses(pingAddress));
+        PathMonitor pathMonitor = this.pathMonitor;
+        if (pathMonitor != null)
+            pathMonitor.setDestinations(Scmp.parseRemoteAddresses(pingAddress));
+    }
+
+    // Returns the store with all metrics scraped from the SCION components.
+    public TimeSeriesStore getTimeSeriesStore() {
+        return timeSeriesStore;
+    }
+
+    // Returns the cached paths to the given ISD-AS (empty if none are known).
+    public List<PathCache.Path> getPaths(String isdAs) {
+        return pathCache.get(isdAs);
+    }
+
+    public Topology getTopology() {
+        return topology;
+    }
+
+    private boolean writeTopology(String topologyPath) {
+        try (Reader reader = storage.getReader(topologyPath)) {
+            topology = Topology.parse(reader);
+        } catch (IOException e) {
+            Logger.e(e);
+            return false;
+        }
+        Logger.i("topology for %s has %d border routers with %d interfaces", topology.getIsdAs(),
+                topology.getBorderRouters().size(), topology.getInterfaces().size());
+        storage.writeFile(TOPOLOGY_PATH,
+                String.format(storage.readAssetFile(TOPOLOGY_TEMPLATE_PATH),
+                        topology.renderInterfaces(), topology.getIsdAs(), topology.getMtu()));
+        return true;
+    }
+}
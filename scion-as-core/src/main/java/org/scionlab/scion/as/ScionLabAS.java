@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import org.rauschig.jarchivelib.ArchiveFormat;
+import org.rauschig.jarchivelib.ArchiverFactory;
+import org.rauschig.jarchivelib.CompressionType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.scionlab.scion.as.Config.Scion.*;
+
+/**
+ * Starts a SCION AS from a given scionlab.org .tar.gz configuration file.
+ */
+public class ScionLabAS extends ScionAS {
+    private String vpnConfig;
+
+    public ScionLabAS(Platform platform, BiConsumer<State, Map<String, State>> stateCallback) {
+        super(platform, stateCallback);
+    }
+
+    public void start(InputStream scionLabConfigurationInputStream, String pingAddress) throws IOException {
+        if (configure(scionLabConfigurationInputStream))
+            startComponents(Version.SCIONLAB, vpnConfig, pingAddress);
+    }
+
+    // Extracts the SCIONLab configuration (a gzipped tarball) and writes the SCION configuration.
+    // The VPN configuration is kept in memory, so the extracted files can be deleted right away.
+    boolean configure(InputStream scionLabConfigurationInputStream) throws IOException {
+        try {
+            Logger.i("extracting SCIONLab configuration");
+            ArchiverFactory.createArchiver(ArchiveFormat.TAR, CompressionType.GZIP)
+                    .extract(scionLabConfigurationInputStream, storage.getFile(TMP_DIRECTORY_PATH));
+            vpnConfig = storage.findInDirectory(TMP_VPN_DIRECTORY_PATH, TMP_VPN_CONFIG_PATH_REGEX)
+                    .map(storage::readFile)
+                    .orElse(null);
+            return configure(storage.getAbsolutePath(TMP_GEN_DIRECTORY_PATH));
+        } finally {
+            storage.deleteFileOrDirectory(TMP_DIRECTORY_PATH);
+        }
+    }
+
+    public static String getScionVersion(Platform platform) {
+        Process.initialize(platform);
+        return Version.SCIONLAB.getScionVersion(Storage.from(platform));
+    }
+}
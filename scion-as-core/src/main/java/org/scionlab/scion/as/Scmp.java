@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.stream.Collectors;
+
+import static org.scionlab.scion.as.Config.Scmp.*;
+
+/**
+ * Probes a set of remote SCION addresses concurrently with echo requests. Each destination
+ * is probed by its own scmp process (all of them share the dispatcher) and has its own RTT
+ * statistics and failure detector. The data plane is considered healthy when a quorum of
+ * destinations replies. Destinations can be changed at any time without a restart.
+ */
+class Scmp extends Component {
+    private volatile Set<String> remoteAddresses;
+    private final Map<String, Probe> probes = new ConcurrentHashMap<>();
+    private boolean isRunning;
+
+    private class Probe {
+        private final String remoteAddress;
+        private final RttRecorder rttRecorder = new RttRecorder();
+        private final PhiAccrualDetector failureDetector = new PhiAccrualDetector(PHI_THRESHOLD);
+        private final Metrics.ScmpMetrics metrics;
+        private Thread thread;
+        private volatile boolean isStopped;
+
+        Probe(String remoteAddress) {
+            this.remoteAddress = remoteAddress;
+            metrics = componentRegistry.getMetrics().createScmpMetrics(remoteAddress);
+        }
+
+        private void recordReply(Matcher matcher) {
+            try {
+                rttRecorder.record(Long.parseLong(matcher.group(1)), parseRtt(matcher.group(2), matcher.group(3)));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+
+        void start() {
+            // the component may be unregistered while the probe is stopping
+            ComponentRegistry componentRegistry = Scmp.this.componentRegistry;
+            thread = new Thread(() -> {
+                try {
+                    // the scmp process may exit (e.g., when the destination is unreachable), so restart it
+                    while (!isStopped) {
+                        Process.from(componentRegistry.getBinaryPath(), getTag(), storage,
+                                componentRegistry.getUncaughtExceptionHandler())
+                                .setSchedulingPolicy(SCHEDULING_POLICY)
+                                .addArgument(BINARY_FLAG)
+                                .addArgument(ECHO_FLAG)
+                                .addArgument(DISPATCHER_SOCKET_FLAG, storage.getAbsolutePath(Config.Dispatcher.SOCKET_PATH))
+                                .addArgument(remoteAddress)
+                                .watchFor(REPLY_PATTERN, this::recordReply)
+                                .watchFor(READY_PATTERN, () -> {
+                                    failureDetector.heartbeat();
+                                    setReady();
+                                })
+                                .run();
+                        Thread.sleep(PROBE_RESTART_INTERVAL);
+                    }
+                } catch (InterruptedException ignored) {
+                }
+            });
+            thread.setUncaughtExceptionHandler(componentRegistry.getUncaughtExceptionHandler());
+            thread.start();
+        }
+
+        void stop() {
+            isStopped = true;
+            metrics.unregister();
+            if (thread != null)
+                thread.interrupt();
+        }
+
+        // Re-evaluates the failure detector and returns whether availability has changed.
+        boolean checkHealth() {
+            boolean wasAvailable = failureDetector.isAvailable();
+            boolean isAvailable = failureDetector.update();
+            if (wasAvailable && !isAvailable)
+                Logger.tag(getTag()).w("%s considered unavailable %d ms after its last echo reply (phi = %.1f), availability has changed %d times since the first reply",
+                        remoteAddress, failureDetector.getLastDetectionTime(), failureDetector.getPhi(),
+                        failureDetector.getFlaps());
+            return wasAvailable != isAvailable;
+        }
+    }
+
+    Scmp(Collection<String> remoteAddresses) {
+        this.remoteAddresses = Collections.unmodifiableSet(new LinkedHashSet<>(remoteAddresses));
+    }
+
+    // Splits a user-supplied list of SCION addresses (separated by whitespace or semicolons).
+    static Set<String> parseRemoteAddresses(String remoteAddresses) {
+        return Arrays.stream(remoteAddresses.trim().split(ADDRESS_SEPARATOR_REGEX))
+                .filter(address -> !address.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    @Override
+    Class[] dependsOn() {
+        return new Class[]{Dispatcher.class, BorderRouter.class, ControlServer.class, Daemon.class};
+    }
+
+    @Override
+    Class[] dependsOnUnderlay() {
+        return new Class[]{VPNClient.class};
+    }
+
+    // The data plane is healthy if a quorum of the probed destinations is available.
+    @Override
+    boolean isHealthy() {
+        if (getState() != State.READY || probes.isEmpty())
+            return false;
+        long available = probes.values().stream().filter(probe -> probe.failureDetector.isAvailable()).count();
+        return available >= Math.max(1, (long) Math.ceil(probes.size() * QUORUM));
+    }
+
+    Set<String> getRemoteAddresses() {
+        return remoteAddresses;
+    }
+
+    // Changes the probed destinations, starting and stopping only the affected probes.
+    void setRemoteAddresses(Collection<String> remoteAddresses) {
+        this.remoteAddresses = Collections.unmodifiableSet(new LinkedHashSet<>(remoteAddresses));
+        synchronizeProbes();
+        notifyStateChange();
+    }
+
+    private synchronized void synchronizeProbes() {
+        Set<String> remoteAddresses = isRunning ? this.remoteAddresses : Collections.emptySet();
+        probes.keySet().stream()
+                .filter(remoteAddress -> !remoteAddresses.contains(remoteAddress))
+                .collect(Collectors.toList())
+                .forEach(remoteAddress -> {
+                    Logger.tag(getTag()).i("stopping echo requests to %s", remoteAddress);
+                    probes.remove(remoteAddress).stop();
+                });
+        remoteAddresses.stream()
+                .filter(remoteAddress -> !probes.containsKey(remoteAddress))
+                .forEach(remoteAddress -> {
+                    Logger.tag(getTag()).i("starting echo requests to %s", remoteAddress);
+                    Probe probe = new Probe(remoteAddress);
+                    probes.put(remoteAddress, probe);
+                    probe.start();
+                });
+    }
+
+    // Returns RTT and loss statistics for every probed destination.
+    Map<String, RttRecorder.Statistics> getStatistics() {
+        Map<String, RttRecorder.Statistics> statistics = new LinkedHashMap<>();
+        remoteAddresses.forEach(remoteAddress -> {
+            Probe probe = probes.get(remoteAddress);
+            if (probe != null)
+                statistics.put(remoteAddress, probe.rttRecorder.getStatistics());
+        });
+        return statistics;
+    }
+
+    int getFlaps() {
+        return probes.values().stream().mapToInt(probe -> probe.failureDetector.getFlaps()).sum();
+    }
+
+    long getLastDetectionTime() {
+        return probes.values().stream().mapToLong(probe -> probe.failureDetector.getLastDetectionTime()).max().orElse(-1);
+    }
+
+    // converts a Go duration (e.g., 36.621ms) to microseconds
+    static long parseRtt(String value, String unit) {
+        double rtt = Double.parseDouble(value);
+        switch (unit) {
+            case "ns":
+                return Math.round(rtt / 1000);
+            case "us":
+            case "µs":
+                return Math.round(rtt);
+            case "ms":
+                return Math.round(rtt * 1000);
+            default:
+                return Math.round(rtt * 1000000);
+        }
+    }
+
+    @Override
+    void run() {
+        synchronized (this) {
+            isRunning = true;
+        }
+        synchronizeProbes();
+
+        try {
+            for (long lastNotified = 0; ; Thread.sleep(HEALTH_CHECK_INTERVAL)) {
+                boolean hasChanged = false;
+                for (Probe probe : probes.values())
+                    hasChanged |= probe.checkHealth();
+                if (hasChanged || System.currentTimeMillis() - lastNotified >= NOTIFY_INTERVAL) {
+                    for (Probe probe : probes.values())
+                        probe.metrics.update(probe.rttRecorder.getStatistics());
+                    notifyStateChange();
+                    lastNotified = System.currentTimeMillis();
+                }
+            }
+        } catch (InterruptedException ignored) {
+        } finally {
+            synchronized (this) {
+                isRunning = false;
+            }
+            synchronizeProbes();
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.scionlab.scion.as.Config.SensorFetcher.*;
+
+/**
+ * Periodically runs the sensorfetcher tool against a list of sensor servers and parses its
+ * output into readings, which are kept in a time-series ring per server and metric. Servers
+ * are queried concurrently by a bounded pool of workers. A fetch joins a running fetch of the
+ * same server, and the last result per server is cached, so callers can render it right away
+ * while a refresh runs. The output is parsed while the tool is running, so listeners see every
+ * reading as soon as it arrives. Example output:
+ *
+ *   2020/03/26 12:25:03
+ *   Temperature: 21.5
+ *   Motion: 0
+ *   Illuminance: 1470.7
+ *   UV Light: 1
+ *   CO2: 398
+ *   Sound intensity: 2
+ *   Humidity: 42.98
+ */
+public class SensorFetcher {
+    private final Source source;
+    private final long cacheTtl;
+    private final TimeSeriesStore timeSeriesStore = new TimeSeriesStore();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor workers = new ThreadPoolExecutor(MAX_CONCURRENT_FETCHES, MAX_CONCURRENT_FETCHES,
+            WORKER_KEEP_ALIVE, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    private final Map<String, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Result> cache = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    // Runs the sensorfetcher tool (or a stand-in) and passes its output to the handler.
+    interface Source {
+        void fetch(String server, Process.InputStreamHandler handler);
+    }
+
+    public interface Listener {
+        // called on a worker thread for every parsed reading
+        void onReading(Reading reading);
+    }
+
+    public static class Reading {
+        private final String server, metric;
+        private final long time;
+        private final double value;
+
+        Reading(String server, long time, String metric, double value) {
+            this.server = server;
+            this.time = time;
+            this.metric = metric;
+            this.value = value;
+        }
+
+        public String getServer() {
+            return server;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public String getMetric() {
+            return metric;
+        }
+
+        public double getValue() {
+            return value;
+        }
+    }
+
+    // The outcome of fetching from a server once, i.e., the readings of its latest sample.
+    public static class Result {
+        private final String server;
+        private final long time, cacheTtl;
+        private final List<Reading> readings;
+
+        Result(String server, long time, List<Reading> readings, long cacheTtl) {
+            this.server = server;
+            this.time = time;
+            this.readings = Collections.unmodifiableList(readings);
+            this.cacheTtl = cacheTtl;
+        }
+
+        public String getServer() {
+            return server;
+        }
+
+        // when the fetch finished
+        public long getTime() {
+            return time;
+        }
+
+        public List<Reading> getReadings() {
+            return readings;
+        }
+
+        public boolean isFresh() {
+            return System.currentTimeMillis() - time < cacheTtl;
+        }
+    }
+
+    public SensorFetcher(Platform platform) {
+        this(createProcessSource(platform), CACHE_TTL);
+    }
+
+    // Also used by SensorFetcherTest with a stand-in source and a shorter cache TTL (in ms).
+    SensorFetcher(Source source, long cacheTtl) {
+        this.source = source;
+        this.cacheTtl = cacheTtl;
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    private static Source createProcessSource(Platform platform) {
+        Process.initialize(platform);
+        Storage storage = Storage.from(platform);
+        Thread.UncaughtExceptionHandler uncaughtExceptionHandler = platform.getUncaughtExceptionHandler();
+        return (server, handler) -> Process.from(Config.Scion.SCIONLAB_BINARY_PATH, TAG, storage, uncaughtExceptionHandler)
+                .addEnvironmentVariable(DISPATCHER_SOCKET_ENV, storage.getAbsolutePath(Config.Dispatcher.SOCKET_PATH))
+                .addArgument(BINARY_FLAG)
+                .addArgument(SERVER_FLAG, server)
+                .run(handler);
+    }
+
+    public static Set<String> parseServers(String servers) {
+        return Arrays.stream(servers.trim().split(SERVER_SEPARATOR_REGEX))
+                .filter(server -> !server.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    // Readings are stored with the server as group and the metric name as key, e.g.,
+    // 17-ffaa:0:1102,[192.33.93.177]:42003/CO2. Listeners of the store are notified after every fetch.
+    public TimeSeriesStore getTimeSeriesStore() {
+        return timeSeriesStore;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Fetches from the given servers now (unless cached) and then every interval (in ms) until stopped.
+    public synchronized void start(Set<String> servers, long interval) {
+        stop();
+        for (String server : servers)
+            fetch(server);
+        interval = Math.max(interval, MIN_INTERVAL);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(() -> {
+            for (String server : servers)
+                refresh(server);
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null)
+            scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    // Returns the last result for the given server, or null if it has not been fetched yet.
+    public Result getCachedResult(String server) {
+        return cache.get(server);
+    }
+
+    // Returns the cached result if it is fresh, otherwise fetches from the given server.
+    public CompletableFuture<Result> fetch(String server) {
+        Result result = cache.get(server);
+        if (result != null && result.isFresh())
+            return CompletableFuture.completedFuture(result);
+        return refresh(server);
+    }
+
+    // Fetches from the given server, unless a fetch from this server is already running,
+    // in which case its result is returned instead.
+    public CompletableFuture<Result> refresh(String server) {
+        CompletableFuture<Result> future = new CompletableFuture<>(),
+                runningFuture = inFlight.putIfAbsent(server, future);
+        if (runningFuture != null)
+            return runningFuture;
+        try {
+            workers.execute(() -> {
+                try {
+                    Result result = fetchNow(server);
+                    // failed fetches keep the last readings in the cache
+                    if (!result.getReadings().isEmpty())
+                        cache.put(server, result);
+                    // callers that refresh as soon as this fetch is done must not join it
+                    finish(server, future);
+                    future.complete(result);
+                } catch (RuntimeException | Error e) {
+                    // waiting callers must not hang, and the next fetch must not join this one
+                    finish(server, future);
+                    future.completeExceptionally(e);
+                    throw e;
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(server, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void finish(String server, CompletableFuture<Result> future) {
+        inFlight.remove(server, future);
+        timeSeriesStore.notifyListeners();
+    }
+
+    private Result fetchNow(String server) {
+        List<Reading> readings = new ArrayList<>();
+        source.fetch(server, inputStream -> read(server, inputStream, readings));
+        return new Result(server, System.currentTimeMillis(), readings, cacheTtl);
+    }
+
+    // Reads the tool's output until it exits (there is no need to poll after the end of the stream).
+    private void read(String server, InputStream inputStream, List<Reading> readings) {
+        SimpleDateFormat timestampFormat = new SimpleDateFormat(TIMESTAMP_FORMAT, Locale.US);
+        timestampFormat.setTimeZone(TimeZone.getTimeZone(TIMESTAMP_TIME_ZONE));
+        long time = System.currentTimeMillis();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                long timestamp = parseTimestamp(timestampFormat, line);
+                if (timestamp >= 0) {
+                    time = timestamp;
+                    continue;
+                }
+                Reading reading = parseReading(server, time, line);
+                if (reading == null) {
+                    Logger.tag(TAG).i(line);
+                    continue;
+                }
+                readings.add(reading);
+                TimeSeriesStore.Series series = timeSeriesStore.getOrCreate(server, reading.metric);
+                // the server may return the same sample again if its sensors were not updated yet
+                if (series == null || series.getRing(TimeSeriesStore.Resolution.RAW).getLastTime() >= reading.time)
+                    continue;
+                series.add(reading.time, reading.value);
+                for (Listener listener : listeners)
+                    listener.onReading(reading);
+            }
+        } catch (IOException e) {
+            Logger.tag(TAG).w(e, "could not read sensor readings");
+        }
+    }
+
+    // Returns the time of the sample the following readings belong to, or -1 if the line is no timestamp.
+    private static long parseTimestamp(SimpleDateFormat timestampFormat, String line) {
+        if (line.length() != TIMESTAMP_FORMAT.length())
+            return -1;
+        try {
+            return timestampFormat.parse(line).getTime();
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    // Parses a line such as "Temperature: 21.5", returns null if the line is no numeric reading.
+    static Reading parseReading(String server, long time, String line) {
+        int separator = line.indexOf(READING_SEPARATOR);
+        if (separator <= 0)
+            return null;
+        try {
+            double value = Double.parseDouble(line.substring(separator + READING_SEPARATOR.length()).trim());
+            return new Reading(server, time, line.substring(0, separator).trim(), value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
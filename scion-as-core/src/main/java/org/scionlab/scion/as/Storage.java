@@ -17,8 +17,6 @@
 
 package org.scionlab.scion.as;
 
-import android.content.Context;
-
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
@@ -29,6 +27,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.Reader;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -42,30 +41,35 @@ import java.util.stream.Stream;
  * In general, we try to store as much files externally as possible to facilitate debugging.
  */
 public class Storage {
-    private Context context;
+    private Platform platform;
 
-    private Storage(Context context) {
-        this.context = context;
+    private Storage(Platform platform) {
+        this.platform = platform;
     }
 
-    public static Storage from(Context context) {
-        return new Storage(context);
+    public static Storage from(Platform platform) {
+        return new Storage(platform);
     }
 
-    private File getFilesDir(Context context, String path) {
+    private File getFilesDir(String path) {
         if (path.startsWith("EXTERNAL/"))
-            return context.getExternalFilesDir(null);
+            return platform.getExternalFilesDirectory();
         if (path.startsWith("INTERNAL/"))
-            return context.getFilesDir();
+            return platform.getInternalFilesDirectory();
         throw new RuntimeException("invalid path " + path + ", please specify storage");
     }
 
     File getFile(String path) {
-        return new File(getFilesDir(context, path), path
+        return new File(getFilesDir(path), path
                 .replaceFirst("^EXTERNAL/", "")
                 .replaceFirst("^INTERNAL/", ""));
     }
 
+    // Returns whether a process accepts connections on the given Unix socket.
+    boolean canConnect(String path) {
+        return platform.canConnect(getFile(path));
+    }
+
     private InputStream getInputStream(File file) {
         try {
             return new FileInputStream(file);
@@ -86,7 +90,7 @@ public class Storage {
 
     private String getRelativePath(String path, File file) {
         String storage = path.startsWith("INTERNAL/") ? "INTERNAL/" : "EXTERNAL/";
-        return storage + getFilesDir(context, path).toURI().relativize(file.toURI()).getPath();
+        return storage + getFilesDir(path).toURI().relativize(file.toURI()).getPath();
     }
 
     public String getAbsolutePath(String path) {
@@ -111,13 +115,17 @@ public class Storage {
         return readFile(getInputStream(path));
     }
 
+    Reader getReader(String path) throws FileNotFoundException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(getFile(path))));
+    }
+
     String readFile(File file) {
         return readFile(getInputStream(file));
     }
 
     String readAssetFile(String path) {
         try {
-            return readFile(context.getAssets().open(path));
+            return readFile(platform.openAsset(path));
         } catch (IOException e) {
             e.printStackTrace();
             return "";
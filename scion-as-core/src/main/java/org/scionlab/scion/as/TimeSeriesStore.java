@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.scionlab.scion.as.Config.TimeSeriesStore.*;
+
+/**
+ * Compact in-memory store for metric samples. Every series keeps its samples in primitive
+ * ring buffers at three resolutions: raw samples, 1 minute and 10 minute aggregates.
+ * Counters (by Prometheus naming convention) are downsampled to their last value, all other
+ * series to their mean. Series are identified by a group (usually the component they were
+ * scraped from) and a key (metric name and labels), which can be looked up directly from a
+ * byte buffer, so scraping does not allocate for series that already exist.
+ */
+public class TimeSeriesStore {
+    private static final String[] COUNTER_SUFFIXES = {"_total", "_count", "_sum", "_bucket"};
+    private static final long ORIGIN = System.currentTimeMillis();
+
+    private final Series[] table = new Series[Integer.highestOneBit(MAX_SERIES) * 4];
+    private final Map<String, Series> seriesByName = new ConcurrentHashMap<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private int size;
+
+    public enum Resolution {
+        RAW(0), MINUTE(60000), TEN_MINUTES(600000);
+
+        private final long interval;
+
+        Resolution(long interval) {
+            this.interval = interval;
+        }
+
+        public long getInterval() {
+            return interval;
+        }
+    }
+
+    /**
+     * Fixed-size ring buffer of (time, value) samples.
+     */
+    public static class Ring {
+        private final int[] times; // seconds since the store was created
+        private final double[] values;
+        private int next, count;
+
+        Ring(int capacity) {
+            times = new int[capacity];
+            values = new double[capacity];
+        }
+
+        synchronized void add(long time, double value) {
+            times[next] = (int) ((time - ORIGIN) / 1000);
+            values[next] = value;
+            next = (next + 1) % values.length;
+            count = Math.min(count + 1, values.length);
+        }
+
+        public synchronized int size() {
+            return count;
+        }
+
+        public int capacity() {
+            return values.length;
+        }
+
+        // Copies up to destination.length of the most recent values (oldest first) and
+        // returns how many values were copied. This does not allocate.
+        public synchronized int copyValues(float[] destination) {
+            int n = Math.min(count, destination.length);
+            for (int i = 0, j = (next - n + values.length) % values.length; i < n; i++, j = (j + 1) % values.length)
+                destination[i] = (float) values[j];
+            return n;
+        }
+
+        public synchronized double getLastValue() {
+            return count == 0 ? Double.NaN : values[(next - 1 + values.length) % values.length];
+        }
+
+        public synchronized long getLastTime() {
+            return count == 0 ? -1 : ORIGIN + times[(next - 1 + values.length) % values.length] * 1000L;
+        }
+    }
+
+    public static class Series {
+        private final String group, name, keyString;
+        private final byte[] key;
+        private final int hash;
+        private final boolean isCounter;
+        private final Ring raw = new Ring(RAW_CAPACITY), minute = new Ring(MINUTE_CAPACITY),
+                tenMinutes = new Ring(TEN_MINUTES_CAPACITY);
+        private final Aggregate minuteAggregate = new Aggregate(minute, Resolution.MINUTE),
+                tenMinutesAggregate = new Aggregate(tenMinutes, Resolution.TEN_MINUTES);
+
+        private class Aggregate {
+            private final Ring ring;
+            private final long interval;
+            private long bucket = -1;
+            private double sum, last;
+            private int count;
+
+            Aggregate(Ring ring, Resolution resolution) {
+                this.ring = ring;
+                this.interval = resolution.getInterval();
+            }
+
+            void add(long time, double value) {
+                long bucket = time / interval;
+                if (bucket != this.bucket && count > 0) {
+                    ring.add(this.bucket * interval, isCounter ? last : sum / count);
+                    sum = 0;
+                    count = 0;
+                }
+                this.bucket = bucket;
+                sum += value;
+                last = value;
+                count++;
+            }
+        }
+
+        private Series(String group, byte[] key, int hash) {
+            this.group = group;
+            this.key = key;
+            this.hash = hash;
+            String keyString = new String(key, StandardCharsets.UTF_8);
+            this.keyString = keyString;
+            this.name = group + "/" + keyString;
+            boolean isCounter = false;
+            String metricName = keyString.contains("{") ? keyString.substring(0, keyString.indexOf('{')) : keyString;
+            for (String suffix : COUNTER_SUFFIXES)
+                isCounter |= metricName.endsWith(suffix);
+            this.isCounter = isCounter;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        // metric name and labels, e.g., router_input_pkts_total{interface="1"}
+        public String getKey() {
+            return keyString;
+        }
+
+        // group and key of this series, e.g., BorderRouter/router_input_pkts_total{interface="1"}
+        public String getName() {
+            return name;
+        }
+
+        public boolean isCounter() {
+            return isCounter;
+        }
+
+        public Ring getRing(Resolution resolution) {
+            switch (resolution) {
+                case MINUTE:
+                    return minute;
+                case TEN_MINUTES:
+                    return tenMinutes;
+                default:
+                    return raw;
+            }
+        }
+
+        public synchronized void add(long time, double value) {
+            raw.add(time, value);
+            minuteAggregate.add(time, value);
+            tenMinutesAggregate.add(time, value);
+        }
+
+        private boolean matches(String group, int hash, byte[] buffer, int offset, int length) {
+            if (this.hash != hash || key.length != length || !this.group.equals(group))
+                return false;
+            for (int i = 0; i < length; i++)
+                if (key[i] != buffer[offset + i])
+                    return false;
+            return true;
+        }
+    }
+
+    private static int hash(String group, byte[] buffer, int offset, int length) {
+        int hash = group.hashCode();
+        for (int i = offset; i < offset + length; i++)
+            hash = 31 * hash + buffer[i];
+        return hash ^ (hash >>> 16);
+    }
+
+    // Returns the series with the given group and key (taken from the buffer), creating it if
+    // necessary. Returns null if the store is full.
+    public synchronized Series getOrCreate(String group, byte[] buffer, int offset, int length) {
+        int hash = hash(group, buffer, offset, length);
+        int mask = table.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            Series series = table[i];
+            if (series == null)
+                break;
+            if (series.matches(group, hash, buffer, offset, length))
+                return series;
+        }
+
+        if (size >= MAX_SERIES)
+            return null;
+        byte[] key = new byte[length];
+        System.arraycopy(buffer, offset, key, 0, length);
+        Series series = new Series(group, key, hash);
+        for (int i = hash & mask; ; i = (i + 1) & mask)
+            if (table[i] == null) {
+                table[i] = series;
+                break;
+            }
+        size++;
+        seriesByName.put(series.getName(), series);
+        return series;
+    }
+
+    public Series getOrCreate(String group, String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        return getOrCreate(group, bytes, 0, bytes.length);
+    }
+
+    // Returns the series with the given name (group/key), or null if it does not exist.
+    public Series get(String name) {
+        return seriesByName.get(name);
+    }
+
+    public Series get(String group, String key) {
+        return get(group + "/" + key);
+    }
+
+    public int size() {
+        return seriesByName.size();
+    }
+
+    public void forEach(Consumer<Series> consumer) {
+        seriesByName.values().forEach(consumer);
+    }
+
+    // Listeners are notified whenever a batch of samples (e.g., a scrape) has been added.
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    void notifyListeners() {
+        listeners.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.scionlab.scion.as.Config.Scion.*;
+
+/**
+ * Typed model of the topology.json contained in a SCIONLab configuration.
+ * The topology is parsed once with a streaming parser and contains every border router
+ * and every interface, so ASes with more than one uplink keep all of their links.
+ */
+public class Topology {
+    private final String isdAs;
+    private final int mtu;
+    private final List<BorderRouter> borderRouters;
+
+    public static class Interface {
+        private final String id;
+        private String isdAs, linkTo, publicUnderlay, remoteUnderlay;
+        private int mtu = DEFAULT_MTU, bandwidth = DEFAULT_BANDWIDTH;
+
+        private Interface(String id) {
+            this.id = id;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getIsdAs() {
+            return isdAs;
+        }
+
+        public String getLinkTo() {
+            return linkTo;
+        }
+
+        public String getPublicUnderlay() {
+            return publicUnderlay;
+        }
+
+        public String getRemoteUnderlay() {
+            return remoteUnderlay;
+        }
+
+        public int getMtu() {
+            return mtu;
+        }
+
+        public int getBandwidth() {
+            return bandwidth;
+        }
+    }
+
+    public static class BorderRouter {
+        private final String name;
+        private final List<Interface> interfaces = new ArrayList<>();
+
+        private BorderRouter(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<Interface> getInterfaces() {
+            return Collections.unmodifiableList(interfaces);
+        }
+    }
+
+    private Topology(String isdAs, int mtu, List<BorderRouter> borderRouters) {
+        this.isdAs = isdAs;
+        this.mtu = mtu;
+        this.borderRouters = Collections.unmodifiableList(borderRouters);
+    }
+
+    public String getIsdAs() {
+        return isdAs;
+    }
+
+    public int getMtu() {
+        return mtu;
+    }
+
+    public List<BorderRouter> getBorderRouters() {
+        return borderRouters;
+    }
+
+    public List<Interface> getInterfaces() {
+        return borderRouters.stream()
+                .flatMap(borderRouter -> borderRouter.interfaces.stream())
+                .collect(Collectors.toList());
+    }
+
+    static Topology parse(Reader reader) throws IOException {
+        String isdAs = null;
+        int mtu = DEFAULT_MTU;
+        List<BorderRouter> borderRouters = new ArrayList<>();
+
+        try (JsonReader jsonReader = new JsonReader(reader)) {
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                switch (jsonReader.nextName()) {
+                    case IA_JSON_PATH:
+                        isdAs = jsonReader.nextString();
+                        break;
+                    case MTU_JSON_PATH:
+                        mtu = jsonReader.nextInt();
+                        break;
+                    case BORDER_ROUTERS_JSON_PATH:
+                        jsonReader.beginObject();
+                        while (jsonReader.hasNext())
+                            borderRouters.add(parseBorderRouter(jsonReader, jsonReader.nextName()));
+                        jsonReader.endObject();
+                        break;
+                    default:
+                        jsonReader.skipValue();
+                }
+            }
+            jsonReader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("malformed topology", e);
+        }
+
+        if (isdAs == null)
+            throw new IOException("topology does not specify an ISD-AS");
+        if (borderRouters.stream().allMatch(borderRouter -> borderRouter.interfaces.isEmpty()))
+            throw new IOException("topology does not specify any interfaces");
+        return new Topology(isdAs, mtu, borderRouters);
+    }
+
+    private static BorderRouter parseBorderRouter(JsonReader jsonReader, String name) throws IOException {
+        BorderRouter borderRouter = new BorderRouter(name);
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            if (jsonReader.nextName().equals(INTERFACES_JSON_PATH)) {
+                jsonReader.beginObject();
+                while (jsonReader.hasNext())
+                    borderRouter.interfaces.add(parseInterface(jsonReader, jsonReader.nextName()));
+                jsonReader.endObject();
+            } else
+                jsonReader.skipValue();
+        }
+        jsonReader.endObject();
+        return borderRouter;
+    }
+
+    private static Interface parseInterface(JsonReader jsonReader, String id) throws IOException {
+        Interface iface = new Interface(id);
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case IA_JSON_PATH:
+                    iface.isdAs = jsonReader.nextString();
+                    break;
+                case LINK_TO_JSON_PATH:
+                    iface.linkTo = jsonReader.nextString();
+                    break;
+                case MTU_JSON_PATH:
+                    iface.mtu = jsonReader.nextInt();
+                    break;
+                case BANDWIDTH_JSON_PATH:
+                    iface.bandwidth = jsonReader.nextInt();
+                    break;
+                case UNDERLAY_JSON_PATH:
+                    jsonReader.beginObject();
+                    while (jsonReader.hasNext()) {
+                        switch (jsonReader.nextName()) {
+                            case PUBLIC_UNDERLAY_JSON_PATH:
+                            case LOCAL_UNDERLAY_JSON_PATH:
+                                iface.publicUnderlay = jsonReader.nextString();
+                                break;
+                            case REMOTE_UNDERLAY_JSON_PATH:
+                                iface.remoteUnderlay = jsonReader.nextString();
+                                break;
+                            default:
+                                jsonReader.skipValue();
+                        }
+                    }
+                    jsonReader.endObject();
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        if (iface.isdAs == null || iface.publicUnderlay == null || iface.remoteUnderlay == null)
+            throw new IOException("incomplete topology for interface " + id);
+        return iface;
+    }
+
+    // Renders the interfaces of all border routers as a single JSON object, because all
+    // links are served by the one border router process that runs on the device.
+    String renderInterfaces() {
+        StringWriter stringWriter = new StringWriter();
+        try (JsonWriter jsonWriter = new JsonWriter(stringWriter)) {
+            jsonWriter.setIndent("  ");
+            jsonWriter.beginObject();
+            for (Interface iface : getInterfaces()) {
+                jsonWriter.name(iface.id).beginObject()
+                        .name(BANDWIDTH_JSON_PATH).value(iface.bandwidth)
+                        .name(IA_JSON_PATH).value(iface.isdAs)
+                        .name(LINK_TO_JSON_PATH).value(iface.linkTo == null ? DEFAULT_LINK_TO : iface.linkTo)
+                        .name(MTU_JSON_PATH).value(iface.mtu)
+                        .name(UNDERLAY_JSON_PATH).beginObject()
+                        .name(PUBLIC_UNDERLAY_JSON_PATH).value(iface.publicUnderlay)
+                        .name(REMOTE_UNDERLAY_JSON_PATH).value(iface.remoteUnderlay)
+                        .endObject()
+                        .endObject();
+            }
+            jsonWriter.endObject();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return stringWriter.toString();
+    }
+}
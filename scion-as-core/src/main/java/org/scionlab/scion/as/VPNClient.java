@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+/**
+ * Connects the AS to the SCIONLab network. How this works depends on the platform (see
+ * Platform.createVPNClient), but other components always depend on VPNClient.class
+ * (see Component.dependsOnUnderlay).
+ */
+abstract class VPNClient extends Component {
+    @Override
+    Class<? extends Component> getComponentClass() {
+        return VPNClient.class;
+    }
+
+    // Returns a client for hosts that are connected already, which is ready right away.
+    static VPNClient connected() {
+        return new VPNClient() {
+            @Override
+            void run() {
+                setReady();
+                try {
+                    Thread.sleep(Long.MAX_VALUE);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        };
+    }
+}
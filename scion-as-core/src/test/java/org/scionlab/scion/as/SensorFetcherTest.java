@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2019-2020 Vera Clemens, Tom Kranz, Tom Heimbrodt, Elias Kuiter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.scionlab.scion.as;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the concurrency and caching of the SensorFetcher against a stand-in for the
+ * sensorfetcher tool, which prints a sample once it is released and can be told to fail.
+ */
+public class SensorFetcherTest {
+    private static final long CACHE_TTL = 500; // shorter than in the app, so stale results can be checked quickly
+    private static final long TIMEOUT = 10000; // how long (in ms) to wait for fetches before failing
+    private static final long SETTLE_TIME = 200; // time (in ms) for further fetches to start if they were not bounded
+
+    private enum Behavior {SUCCEED, FAIL, CRASH}
+
+    // Stands in for the sensorfetcher tool, blocks every fetch until released.
+    private static class StandInSource implements SensorFetcher.Source {
+        private final Map<String, LongAdder> fetches = new ConcurrentHashMap<>();
+        private final AtomicInteger running = new AtomicInteger(), maxRunning = new AtomicInteger();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+        private volatile Behavior behavior = Behavior.SUCCEED;
+
+        @Override
+        public void fetch(String server, Process.InputStreamHandler handler) {
+            fetches.computeIfAbsent(server, s -> new LongAdder()).increment();
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                if (!gate.await(TIMEOUT, TimeUnit.MILLISECONDS))
+                    throw new IllegalStateException("fetch was not released");
+                if (behavior == Behavior.CRASH)
+                    throw new IllegalStateException("simulated crash");
+                SimpleDateFormat timestampFormat = new SimpleDateFormat(Config.SensorFetcher.TIMESTAMP_FORMAT, Locale.US);
+                timestampFormat.setTimeZone(TimeZone.getTimeZone(Config.SensorFetcher.TIMESTAMP_TIME_ZONE));
+                // like the tool, a failed fetch prints an error but no readings
+                String output = behavior == Behavior.FAIL ? "could not reach " + server + "\n"
+                        : timestampFormat.format(new Date()) + "\nTemperature: 21.5\nCO2: 398\n";
+                handler.handle(new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+
+        long getFetches(String server) {
+            LongAdder adder = fetches.get(server);
+            return adder == null ? 0 : adder.sum();
+        }
+
+        void hold() {
+            gate = new CountDownLatch(1);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        // Waits until the given number of fetches is blocked in the source.
+        void awaitRunning(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TIMEOUT;
+            while (running.get() < count) {
+                assertTrue("only " + running.get() + " of " + count + " fetches started", System.currentTimeMillis() < deadline);
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private StandInSource source;
+    private SensorFetcher sensorFetcher;
+    private Thread.UncaughtExceptionHandler defaultUncaughtExceptionHandler;
+    private final LongAdder crashes = new LongAdder();
+
+    @Before
+    public void setUp() {
+        source = new StandInSource();
+        sensorFetcher = new SensorFetcher(source, CACHE_TTL);
+        // crashed fetches are rethrown on the worker thread, they are only counted here
+        defaultUncaughtExceptionHandler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> crashes.increment());
+    }
+
+    @After
+    public void tearDown() {
+        source.release();
+        Thread.setDefaultUncaughtExceptionHandler(defaultUncaughtExceptionHandler);
+    }
+
+    private static SensorFetcher.Result await(CompletableFuture<SensorFetcher.Result> future) throws Exception {
+        return future.get(TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void joinsFetchesOfTheSameServer() throws Exception {
+        String server = "joined";
+        source.hold();
+        CompletableFuture<SensorFetcher.Result> first = sensorFetcher.refresh(server);
+        source.awaitRunning(1);
+        List<CompletableFuture<SensorFetcher.Result>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            futures.add(i % 2 == 0 ? sensorFetcher.refresh(server) : sensorFetcher.fetch(server));
+        source.release();
+        SensorFetcher.Result result = await(first);
+        for (CompletableFuture<SensorFetcher.Result> future : futures)
+            assertSame(result, await(future));
+        assertEquals(1, source.getFetches(server));
+        assertEquals(2, result.getReadings().size());
+
+        // a finished fetch is not joined, even right after it completed
+        await(sensorFetcher.refresh(server));
+        assertEquals(2, source.getFetches(server));
+    }
+
+    @Test
+    public void boundsConcurrentFetches() throws Exception {
+        int bound = Config.SensorFetcher.MAX_CONCURRENT_FETCHES;
+        source.hold();
+        List<CompletableFuture<SensorFetcher.Result>> futures = new ArrayList<>();
+        for (int i = 0; i < 3 * bound; i++)
+            futures.add(sensorFetcher.refresh("bounded-" + i));
+        source.awaitRunning(bound);
+        Thread.sleep(SETTLE_TIME);
+        assertEquals(bound, source.maxRunning.get());
+
+        // queued fetches run once a worker is free
+        source.release();
+        for (CompletableFuture<SensorFetcher.Result> future : futures)
+            assertFalse(await(future).getReadings().isEmpty());
+        assertEquals(bound, source.maxRunning.get());
+    }
+
+    @Test
+    public void servesFreshResultsFromTheCache() throws Exception {
+        String server = "cached";
+        SensorFetcher.Result result = await(sensorFetcher.fetch(server));
+        CompletableFuture<SensorFetcher.Result> future = sensorFetcher.fetch(server);
+        assertTrue(future.isDone());
+        assertSame(result, await(future));
+        assertEquals(1, source.getFetches(server));
+
+        // a stale result is kept until it is fetched again
+        Thread.sleep(CACHE_TTL + SETTLE_TIME);
+        assertFalse(result.isFresh());
+        assertSame(result, sensorFetcher.getCachedResult(server));
+        SensorFetcher.Result refreshed = await(sensorFetcher.fetch(server));
+        assertEquals(2, source.getFetches(server));
+        assertNotSame(result, refreshed);
+        assertTrue(refreshed.isFresh());
+        assertSame(refreshed, sensorFetcher.getCachedResult(server));
+    }
+
+    @Test
+    public void failedFetchesKeepTheCachedResult() throws Exception {
+        String server = "failing";
+        SensorFetcher.Result result = await(sensorFetcher.fetch(server));
+        Thread.sleep(CACHE_TTL + SETTLE_TIME);
+        source.behavior = Behavior.FAIL;
+        assertTrue(await(sensorFetcher.fetch(server)).getReadings().isEmpty());
+        assertSame(result, sensorFetcher.getCachedResult(server));
+
+        source.behavior = Behavior.CRASH;
+        try {
+            await(sensorFetcher.refresh(server));
+            fail("crashed fetch completed normally");
+        } catch (ExecutionException e) {
+            assertSame(result, sensorFetcher.getCachedResult(server));
+        }
+        // the worker rethrows the crash after completing the fetch
+        for (long deadline = System.currentTimeMillis() + TIMEOUT; crashes.sum() == 0 && System.currentTimeMillis() < deadline; )
+            Thread.sleep(10);
+        assertEquals(1, crashes.sum());
+
+        // the next fetch after a failure runs and replaces the cached result
+        source.behavior = Behavior.SUCCEED;
+        SensorFetcher.Result refreshed = await(sensorFetcher.fetch(server));
+        assertEquals(4, source.getFetches(server));
+        assertSame(refreshed, sensorFetcher.getCachedResult(server));
+    }
+}